@@ -1,9 +1,12 @@
 package com.epsum.epsumstock.category;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.epsum.epsumstock.user.User;
 
@@ -24,6 +27,11 @@ public interface CategoryRepository extends JpaRepository<Category, Long> {
 
     List<Category> findAllByOwner(User owner, Sort sort);
 
-    List<Category> findAllByNameContainingIgnoreCaseAndOwner(String name, User owner);
+    @Query("""
+            SELECT c FROM Category c
+            WHERE c.owner = :owner AND c.name ILIKE :pattern ESCAPE '!'
+            ORDER BY function('similarity', c.name, :name) DESC, c.name
+            """)
+    List<Category> searchByName(@Param("pattern") String pattern, @Param("name") String name, @Param("owner") User owner, Limit limit);
 
 }
@@ -8,7 +8,9 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
 import java.util.List;
 
@@ -18,9 +20,11 @@ public class CategoryService {
     private static final Logger logger = LoggerFactory.getLogger(CategoryService.class);
 
     private final CategoryRepository categoryRepository;
+    private final DashboardCache dashboardCache;
 
-    public CategoryService(CategoryRepository categoryRepository) {
+    public CategoryService(CategoryRepository categoryRepository, DashboardCache dashboardCache) {
         this.categoryRepository = categoryRepository;
+        this.dashboardCache = dashboardCache;
     }
 
     @Transactional
@@ -31,6 +35,7 @@ public class CategoryService {
         }
         category.setOwner(owner);
         categoryRepository.save(category);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Category {} created for user {}", category.getName(), owner.getEmail());
     }
 
@@ -49,7 +54,7 @@ public class CategoryService {
     @Transactional(readOnly = true)
     public List<Category> findCategories(String name, User owner) {
         logger.info("Finding categories containing name {} for user {}", name, owner.getEmail());
-        return categoryRepository.findAllByNameContainingIgnoreCaseAndOwner(name, owner);
+        return categoryRepository.searchByName(Search.containing(name), name, owner, Search.LIMIT);
     }
 
     @Transactional(readOnly = true)
@@ -80,6 +85,7 @@ public class CategoryService {
             throw new CategoryNotFoundException();
         }
         categoryRepository.deleteById(id);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Category with id {} of user {} deleted", id, owner.getEmail());
     }
 
@@ -12,16 +12,20 @@ import com.epsum.epsumstock.user.User;
 import com.epsum.epsumstock.util.CsvConversionException;
 import com.epsum.epsumstock.util.CsvConverter;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/customers")
 public class CustomerController {
 
     private final CustomerService customerService;
     private final CsvConverter csvConverter;
+    private final CustomerTypeahead customerTypeahead;
 
-    public CustomerController(CustomerService customerService, CsvConverter csvConverter) {
+    public CustomerController(CustomerService customerService, CsvConverter csvConverter, CustomerTypeahead customerTypeahead) {
         this.customerService = customerService;
         this.csvConverter = csvConverter;
+        this.customerTypeahead = customerTypeahead;
     }
 
     @GetMapping("/create")
@@ -75,6 +79,12 @@ public class CustomerController {
         return "customer/customer-table";
     }
 
+    @GetMapping("/suggestions")
+    @ResponseBody
+    public List<CustomerSuggestion> suggestCustomers(@AuthenticationPrincipal User user, @RequestParam(name = "query", defaultValue = "") String query) {
+        return customerTypeahead.suggest(query, user);
+    }
+
     @GetMapping("/update/{id}")
     public String retrieveUpdateCustomerPage(@AuthenticationPrincipal User user, @PathVariable("id") long id, Model model) {
         var customer = customerService.findCustomer(id, user);
@@ -1,12 +1,16 @@
 package com.epsum.epsumstock.customer;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.epsum.epsumstock.user.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -24,6 +28,17 @@ public interface CustomerRepository extends JpaRepository<Customer, Long> {
 
     List<Customer> findAllByOwner(User owner, Sort sort);
 
-    List<Customer> findAllByNameContainingIgnoreCaseAndOwner(String name, User owner);
+    @Query("SELECT new com.epsum.epsumstock.customer.CustomerSuggestion(c.id, c.name) FROM Customer c WHERE c.owner = :owner")
+    List<CustomerSuggestion> findSuggestionsByOwner(@Param("owner") User owner);
+
+    @Query("SELECT new com.epsum.epsumstock.customer.CustomerSuggestion(c.id, c.name) FROM Customer c WHERE c.id IN :ids AND c.owner = :owner")
+    List<CustomerSuggestion> findSuggestionsByIdInAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") User owner);
+
+    @Query("""
+            SELECT c FROM Customer c
+            WHERE c.owner = :owner AND c.name ILIKE :pattern ESCAPE '!'
+            ORDER BY function('similarity', c.name, :name) DESC, c.name
+            """)
+    List<Customer> searchByName(@Param("pattern") String pattern, @Param("name") String name, @Param("owner") User owner, Limit limit);
 
 }
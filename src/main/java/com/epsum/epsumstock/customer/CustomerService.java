@@ -8,8 +8,10 @@ import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.order.OrderRepository;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
 import java.util.List;
 
@@ -20,10 +22,14 @@ public class CustomerService {
 
     private final CustomerRepository customerRepository;
     private final OrderRepository orderRepository;
+    private final CustomerTypeahead customerTypeahead;
+    private final DashboardCache dashboardCache;
 
-    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository) {
+    public CustomerService(CustomerRepository customerRepository, OrderRepository orderRepository, CustomerTypeahead customerTypeahead, DashboardCache dashboardCache) {
         this.customerRepository = customerRepository;
         this.orderRepository = orderRepository;
+        this.customerTypeahead = customerTypeahead;
+        this.dashboardCache = dashboardCache;
     }
 
     @Transactional
@@ -34,6 +40,8 @@ public class CustomerService {
         }
         customer.setOwner(owner);
         customerRepository.save(customer);
+        customerTypeahead.refreshAfterCommit(customer.getId(), owner);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Customer {} created for user {}", customer.getName(), owner.getEmail());
     }
 
@@ -45,6 +53,8 @@ public class CustomerService {
                 .peek(customer -> customer.setOwner(owner))
                 .toList();
         customerRepository.saveAll(newCustomers);
+        customerTypeahead.refreshAfterCommit(newCustomers.stream().map(Customer::getId).toList(), owner);
+        dashboardCache.invalidateAfterCommit(owner);
         newCustomers.forEach(customer -> logger.info("Customer {} created for user {}", customer.getName(), owner.getEmail()));
     }
 
@@ -63,7 +73,7 @@ public class CustomerService {
     @Transactional(readOnly = true)
     public List<Customer> findCustomers(String name, User owner) {
         logger.info("Finding customers containing name {} for user {}", name, owner.getEmail());
-        return customerRepository.findAllByNameContainingIgnoreCaseAndOwner(name, owner);
+        return customerRepository.searchByName(Search.containing(name), name, owner, Search.LIMIT);
     }
 
     @Transactional(readOnly = true)
@@ -86,6 +96,7 @@ public class CustomerService {
         customer.setAddress(updatedCustomer.getAddress());
         customer.setPhone(updatedCustomer.getPhone());
         customerRepository.save(customer);
+        customerTypeahead.refreshAfterCommit(customer.getId(), owner);
         logger.info("Customer with id {} of user {} updated, new name is {}", customer.getId(), owner.getEmail(), updatedCustomer.getName());
     }
 
@@ -100,6 +111,8 @@ public class CustomerService {
             throw new CustomerDeletionNotAllowedException();
         }
         customerRepository.deleteById(id);
+        customerTypeahead.refreshAfterCommit(id, owner);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Customer with id {} of user {} deleted", id, owner.getEmail());
     }
 
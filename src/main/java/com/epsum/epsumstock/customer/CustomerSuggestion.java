@@ -0,0 +1,3 @@
+package com.epsum.epsumstock.customer;
+
+public record CustomerSuggestion(Long id, String name) {}
@@ -0,0 +1,37 @@
+package com.epsum.epsumstock.customer;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Typeahead;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class CustomerTypeahead extends Typeahead<CustomerSuggestion> {
+
+    private final CustomerRepository customerRepository;
+
+    public CustomerTypeahead(
+            CustomerRepository customerRepository,
+            @Value("${typeahead.capacity:1000}") int capacity,
+            @Value("${typeahead.max-idle:30m}") Duration maxIdle
+    ) {
+        super(CustomerSuggestion::id, CustomerSuggestion::name, capacity, maxIdle);
+        this.customerRepository = customerRepository;
+    }
+
+    @Override
+    protected List<CustomerSuggestion> load(User owner) {
+        return customerRepository.findSuggestionsByOwner(owner);
+    }
+
+    @Override
+    protected List<CustomerSuggestion> load(Collection<Long> ids, User owner) {
+        return customerRepository.findSuggestionsByIdInAndOwner(ids, owner);
+    }
+
+}
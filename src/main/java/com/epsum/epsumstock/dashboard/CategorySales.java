@@ -0,0 +1,41 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.math.BigDecimal;
+
+public class CategorySales {
+
+    private final Long categoryId;
+    private final String categoryName;
+    private final BigDecimal amount;
+    private final Long units;
+    private final Long orderLines;
+
+    public CategorySales(Long categoryId, String categoryName, BigDecimal amount, Long units, Long orderLines) {
+        this.categoryId = categoryId;
+        this.categoryName = categoryName;
+        this.amount = amount;
+        this.units = units;
+        this.orderLines = orderLines;
+    }
+
+    public Long getCategoryId() {
+        return categoryId;
+    }
+
+    public String getCategoryName() {
+        return categoryName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public Long getOrderLines() {
+        return orderLines;
+    }
+
+}
@@ -9,6 +9,7 @@ import java.math.BigDecimal;
 
 @Entity
 @Immutable
+@Table(name = "dashboard_counters")
 public class Dashboard {
 
     @Id
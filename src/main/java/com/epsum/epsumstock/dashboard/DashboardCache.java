@@ -0,0 +1,165 @@
+package com.epsum.epsumstock.dashboard;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+@Component
+public class DashboardCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DashboardCache.class);
+
+    private final Map<Long, Entry> entries = new ConcurrentHashMap<>();
+    private final DashboardRepository dashboardRepository;
+    private final ExecutorService executor;
+    private final Duration refreshTimeout;
+    private final Duration maxAge;
+    private final Counter hitCounter;
+    private final Counter missCounter;
+    private final Counter staleCounter;
+
+    public DashboardCache(
+            DashboardRepository dashboardRepository,
+            MeterRegistry meterRegistry,
+            @Value("${dashboard-cache.threads:2}") int threads,
+            @Value("${dashboard-cache.refresh-timeout:250ms}") Duration refreshTimeout,
+            @Value("${dashboard-cache.max-age:5m}") Duration maxAge
+    ) {
+        this.dashboardRepository = dashboardRepository;
+        this.executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("dashboard-cache-"));
+        this.refreshTimeout = refreshTimeout;
+        this.maxAge = maxAge;
+        this.hitCounter = Counter.builder("dashboard.cache.hits").register(meterRegistry);
+        this.missCounter = Counter.builder("dashboard.cache.misses").register(meterRegistry);
+        this.staleCounter = Counter.builder("dashboard.cache.stale").register(meterRegistry);
+        Gauge.builder("dashboard.cache.size", entries, Map::size).register(meterRegistry);
+    }
+
+    public Dashboard get(User owner) {
+        var entry = entries.computeIfAbsent(owner.getId(), ownerId -> new Entry());
+        var snapshot = entry.snapshot;
+        if (snapshot != null && entry.isFresh(snapshot, maxAge)) {
+            hitCounter.increment();
+            return snapshot.dashboard();
+        }
+        missCounter.increment();
+        var refresh = entry.refresh(() -> load(owner), executor);
+        if (snapshot == null) {
+            return await(refresh);
+        }
+        try {
+            return refresh.get(refreshTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (TimeoutException e) {
+            logger.info("Dashboard of user {} not refreshed within {}, serving stale dashboard", owner.getEmail(), refreshTimeout);
+        } catch (ExecutionException e) {
+            logger.info("Dashboard of user {} not refreshed, serving stale dashboard", owner.getEmail(), e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        staleCounter.increment();
+        return snapshot.dashboard();
+    }
+
+    public void invalidateAfterCommit(User owner) {
+        if (!entries.containsKey(owner.getId())) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            invalidate(owner);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                invalidate(owner);
+            }
+        });
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private void invalidate(User owner) {
+        var entry = entries.get(owner.getId());
+        if (entry != null) {
+            entry.generation.incrementAndGet();
+        }
+    }
+
+    private Dashboard load(User owner) {
+        logger.info("Loading dashboard for user {}", owner.getEmail());
+        return dashboardRepository.findById(owner.getId()).orElseThrow();
+    }
+
+    private Dashboard await(CompletableFuture<Dashboard> refresh) {
+        try {
+            return refresh.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    private record Snapshot(Dashboard dashboard, long generation, Instant loadedAt) {
+    }
+
+    private static final class Entry {
+
+        private final AtomicLong generation = new AtomicLong();
+        private volatile Snapshot snapshot;
+        private CompletableFuture<Dashboard> refresh;
+        private long refreshGeneration;
+
+        private boolean isFresh(Snapshot snapshot, Duration maxAge) {
+            return snapshot.generation() == generation.get()
+                   && snapshot.loadedAt().plus(maxAge).isAfter(Instant.now());
+        }
+
+        private synchronized CompletableFuture<Dashboard> refresh(Supplier<Dashboard> loader, ExecutorService executor) {
+            var currentGeneration = generation.get();
+            if (refresh != null && !refresh.isDone() && refreshGeneration == currentGeneration) {
+                return refresh;
+            }
+            refreshGeneration = currentGeneration;
+            refresh = CompletableFuture.supplyAsync(loader, executor)
+                    .whenComplete((dashboard, e) -> {
+                        if (dashboard != null && (snapshot == null || snapshot.generation() <= currentGeneration)) {
+                            snapshot = new Snapshot(dashboard, currentGeneration, Instant.now());
+                        }
+                    });
+            return refresh;
+        }
+
+    }
+
+}
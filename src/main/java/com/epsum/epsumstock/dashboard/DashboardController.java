@@ -1,28 +1,50 @@
 package com.epsum.epsumstock.dashboard;
 
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.GetMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 
 import com.epsum.epsumstock.user.User;
 
+import java.time.LocalDate;
+
 @Controller
 @RequestMapping("/dashboard")
 public class DashboardController {
 
     private final DashboardService dashboardService;
+    private final SalesReportService salesReportService;
 
-    public DashboardController(DashboardService dashboardService) {
+    public DashboardController(DashboardService dashboardService, SalesReportService salesReportService) {
         this.dashboardService = dashboardService;
+        this.salesReportService = salesReportService;
     }
 
     @GetMapping
     public String retrieveDashboardPage(@AuthenticationPrincipal User user, Model model) {
         var dashboard = dashboardService.retrieveDashboard(user);
+        var today = LocalDate.now();
         model.addAttribute("dashboard", dashboard);
+        model.addAttribute("monthlySales", salesReportService.listSales(SalesPeriod.MONTH, SalesPeriod.MONTH.defaultStartDate(today), today, user));
         return "dashboard/dashboard";
     }
 
+    @GetMapping("/sales")
+    public String retrieveSalesReportPage(
+            @AuthenticationPrincipal User user,
+            @RequestParam(name = "period", defaultValue = "DAY") SalesPeriod period,
+            @RequestParam(name = "start-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "end-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            Model model
+    ) {
+        var lastDate = endDate != null ? endDate : LocalDate.now();
+        var firstDate = startDate != null ? startDate : period.defaultStartDate(lastDate);
+        model.addAttribute("report", salesReportService.reportSales(period, firstDate, lastDate, user));
+        return "dashboard/sales-report";
+    }
+
 }
@@ -1,22 +1,20 @@
 package com.epsum.epsumstock.dashboard;
 
 import org.springframework.stereotype.Service;
-import org.springframework.transaction.annotation.Transactional;
 
 import com.epsum.epsumstock.user.User;
 
 @Service
 public class DashboardService {
 
-    private final DashboardRepository dashboardRepository;
+    private final DashboardCache dashboardCache;
 
-    public DashboardService(DashboardRepository dashboardRepository) {
-        this.dashboardRepository = dashboardRepository;
+    public DashboardService(DashboardCache dashboardCache) {
+        this.dashboardCache = dashboardCache;
     }
 
-    @Transactional(readOnly = true)
     public Dashboard retrieveDashboard(User user) {
-        return dashboardRepository.findById(user.getId()).orElseThrow();
+        return dashboardCache.get(user);
     }
 
 }
@@ -0,0 +1,23 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+
+@Service
+public class DashboardServiceScheduler {
+
+    private final SalesRollupRebuilder salesRollupRebuilder;
+
+    public DashboardServiceScheduler(SalesRollupRebuilder salesRollupRebuilder) {
+        this.salesRollupRebuilder = salesRollupRebuilder;
+    }
+
+    @Scheduled(cron = "@daily")
+    private void rebuildRecentSalesRollups() {
+        var today = LocalDate.now();
+        salesRollupRebuilder.rebuild(today.minusMonths(1).withDayOfMonth(1), today);
+    }
+
+}
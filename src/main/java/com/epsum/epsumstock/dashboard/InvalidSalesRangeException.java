@@ -0,0 +1,9 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class InvalidSalesRangeException extends RuntimeException {
+
+}
@@ -0,0 +1,41 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.math.BigDecimal;
+
+public class ProductSales {
+
+    private final Long productId;
+    private final String productName;
+    private final BigDecimal amount;
+    private final Long units;
+    private final Long orders;
+
+    public ProductSales(Long productId, String productName, BigDecimal amount, Long units, Long orders) {
+        this.productId = productId;
+        this.productName = productName;
+        this.amount = amount;
+        this.units = units;
+        this.orders = orders;
+    }
+
+    public Long getProductId() {
+        return productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public Long getOrders() {
+        return orders;
+    }
+
+}
@@ -0,0 +1,74 @@
+package com.epsum.epsumstock.dashboard;
+
+import jakarta.persistence.*;
+import org.hibernate.annotations.Immutable;
+
+import com.epsum.epsumstock.product.Product;
+import com.epsum.epsumstock.user.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+@Entity
+@Immutable
+@Table(name = "product_sales_rollup")
+public class ProductSalesRollup {
+
+    @Id
+    private Long id;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User owner;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private Product product;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private SalesPeriod period;
+
+    @Column(nullable = false)
+    private LocalDate bucket;
+
+    @Column(nullable = false)
+    private BigDecimal amount;
+
+    @Column(nullable = false)
+    private Long units;
+
+    @Column(nullable = false)
+    private Long orders;
+
+    public Long getId() {
+        return id;
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public SalesPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getBucket() {
+        return bucket;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public Long getOrders() {
+        return orders;
+    }
+
+}
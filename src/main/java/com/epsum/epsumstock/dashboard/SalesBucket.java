@@ -0,0 +1,40 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class SalesBucket {
+
+    private final LocalDate bucket;
+    private final BigDecimal amount;
+    private final Long units;
+    private final Long orders;
+
+    public SalesBucket(LocalDate bucket, BigDecimal amount, Long units, Long orders) {
+        this.bucket = bucket;
+        this.amount = amount;
+        this.units = units;
+        this.orders = orders;
+    }
+
+    public static SalesBucket empty(LocalDate bucket) {
+        return new SalesBucket(bucket, BigDecimal.ZERO, 0L, 0L);
+    }
+
+    public LocalDate getBucket() {
+        return bucket;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+    public Long getUnits() {
+        return units;
+    }
+
+    public Long getOrders() {
+        return orders;
+    }
+
+}
@@ -0,0 +1,27 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.time.LocalDate;
+import java.time.temporal.ChronoUnit;
+
+public enum SalesPeriod {
+
+    DAY,
+    MONTH;
+
+    public LocalDate bucketOf(LocalDate date) {
+        return this == MONTH ? date.withDayOfMonth(1) : date;
+    }
+
+    public LocalDate nextBucket(LocalDate bucket) {
+        return this == MONTH ? bucket.plusMonths(1) : bucket.plusDays(1);
+    }
+
+    public long bucketsBetween(LocalDate firstBucket, LocalDate lastBucket) {
+        return (this == MONTH ? ChronoUnit.MONTHS : ChronoUnit.DAYS).between(firstBucket, lastBucket) + 1;
+    }
+
+    public LocalDate defaultStartDate(LocalDate endDate) {
+        return this == MONTH ? endDate.minusMonths(11).withDayOfMonth(1) : endDate.minusDays(29);
+    }
+
+}
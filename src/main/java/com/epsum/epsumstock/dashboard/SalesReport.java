@@ -0,0 +1,48 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public class SalesReport {
+
+    private final SalesPeriod period;
+    private final LocalDate startDate;
+    private final LocalDate endDate;
+    private final List<SalesBucket> buckets;
+    private final List<ProductSales> products;
+    private final List<CategorySales> categories;
+
+    public SalesReport(SalesPeriod period, LocalDate startDate, LocalDate endDate, List<SalesBucket> buckets, List<ProductSales> products, List<CategorySales> categories) {
+        this.period = period;
+        this.startDate = startDate;
+        this.endDate = endDate;
+        this.buckets = buckets;
+        this.products = products;
+        this.categories = categories;
+    }
+
+    public SalesPeriod getPeriod() {
+        return period;
+    }
+
+    public LocalDate getStartDate() {
+        return startDate;
+    }
+
+    public LocalDate getEndDate() {
+        return endDate;
+    }
+
+    public List<SalesBucket> getBuckets() {
+        return buckets;
+    }
+
+    public List<ProductSales> getProducts() {
+        return products;
+    }
+
+    public List<CategorySales> getCategories() {
+        return categories;
+    }
+
+}
@@ -0,0 +1,70 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.data.domain.Limit;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class SalesReportService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesReportService.class);
+
+    static final int TOP_PRODUCTS_SIZE = 10;
+    static final int MAX_BUCKETS = 366;
+
+    private final SalesRollupRepository salesRollupRepository;
+
+    public SalesReportService(SalesRollupRepository salesRollupRepository) {
+        this.salesRollupRepository = salesRollupRepository;
+    }
+
+    @Transactional(readOnly = true)
+    public List<SalesBucket> listSales(SalesPeriod period, LocalDate startDate, LocalDate endDate, User owner) {
+        var firstBucket = period.bucketOf(startDate);
+        var lastBucket = period.bucketOf(endDate);
+        checkRange(period, firstBucket, lastBucket, owner);
+        logger.info("Listing sales by {} from {} to {} for user {}", period, firstBucket, lastBucket, owner.getEmail());
+        var buckets = salesRollupRepository.findBuckets(period, firstBucket, lastBucket, owner).stream()
+                .collect(Collectors.toMap(SalesBucket::getBucket, Function.identity()));
+        var sales = new ArrayList<SalesBucket>();
+        for (var bucket = firstBucket; !bucket.isAfter(lastBucket); bucket = period.nextBucket(bucket)) {
+            sales.add(buckets.getOrDefault(bucket, SalesBucket.empty(bucket)));
+        }
+        return sales;
+    }
+
+    @Transactional(readOnly = true)
+    public SalesReport reportSales(SalesPeriod period, LocalDate startDate, LocalDate endDate, User owner) {
+        var firstBucket = period.bucketOf(startDate);
+        var lastBucket = period.bucketOf(endDate);
+        var buckets = listSales(period, startDate, endDate, owner);
+        logger.info("Reporting product and category sales by {} from {} to {} for user {}", period, firstBucket, lastBucket, owner.getEmail());
+        return new SalesReport(
+                period,
+                firstBucket,
+                lastBucket,
+                buckets,
+                salesRollupRepository.findProductSales(period, firstBucket, lastBucket, owner, Limit.of(TOP_PRODUCTS_SIZE)),
+                salesRollupRepository.findCategorySales(period, firstBucket, lastBucket, owner)
+        );
+    }
+
+    private void checkRange(SalesPeriod period, LocalDate firstBucket, LocalDate lastBucket, User owner) {
+        var buckets = period.bucketsBetween(firstBucket, lastBucket);
+        if (buckets < 1 || buckets > MAX_BUCKETS) {
+            logger.info("Sales range from {} to {} by {} of user {} is invalid, throwing exception", firstBucket, lastBucket, period, owner.getEmail());
+            throw new InvalidSalesRangeException();
+        }
+    }
+
+}
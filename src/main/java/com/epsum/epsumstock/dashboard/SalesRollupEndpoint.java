@@ -0,0 +1,29 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.WriteOperation;
+import org.springframework.lang.Nullable;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+@Component
+@Endpoint(id = "salesrollups")
+public class SalesRollupEndpoint {
+
+    private final SalesRollupRebuilder salesRollupRebuilder;
+
+    public SalesRollupEndpoint(SalesRollupRebuilder salesRollupRebuilder) {
+        this.salesRollupRebuilder = salesRollupRebuilder;
+    }
+
+    @WriteOperation
+    public Map<String, Object> rebuild(@Nullable LocalDate startDate, @Nullable LocalDate endDate) {
+        var start = startDate != null ? startDate : LocalDate.MIN;
+        var end = endDate != null ? endDate : LocalDate.MAX;
+        var orders = salesRollupRebuilder.rebuild(start, end);
+        return Map.of("startDate", start.toString(), "endDate", end.toString(), "orders", orders);
+    }
+
+}
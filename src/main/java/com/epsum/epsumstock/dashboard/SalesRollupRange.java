@@ -0,0 +1,6 @@
+package com.epsum.epsumstock.dashboard;
+
+import java.time.LocalDate;
+
+public record SalesRollupRange(Long ownerId, LocalDate firstDate, LocalDate lastDate) {
+}
@@ -0,0 +1,112 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Service;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+@Service
+public class SalesRollupRebuilder {
+
+    private static final Logger logger = LoggerFactory.getLogger(SalesRollupRebuilder.class);
+
+    private final SalesRollupRepository salesRollupRepository;
+    private final int threads;
+    private final boolean rebuildOnStartup;
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public SalesRollupRebuilder(
+            SalesRollupRepository salesRollupRepository,
+            @Value("${sales-rollup.rebuild-threads:4}") int threads,
+            @Value("${spring.datasource.hikari.maximum-pool-size:10}") int poolSize,
+            @Value("${sales-rollup.rebuild-on-startup:false}") boolean rebuildOnStartup
+    ) {
+        this.salesRollupRepository = salesRollupRepository;
+        this.threads = Math.max(1, Math.min(threads, poolSize / 2));
+        this.rebuildOnStartup = rebuildOnStartup;
+        if (this.threads < threads) {
+            logger.info("Sales rollup rebuild limited to {} threads by a pool of {} connections", this.threads, poolSize);
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildAfterStartup() {
+        if (rebuildOnStartup) {
+            rebuild(LocalDate.MIN, LocalDate.MAX);
+        }
+    }
+
+    public int rebuild(LocalDate startDate, LocalDate endDate) {
+        if (!running.compareAndSet(false, true)) {
+            logger.info("Sales rollup rebuild already running, throwing exception");
+            throw new IllegalStateException("Sales rollup rebuild already running");
+        }
+        try {
+            return rebuildChunks(findChunks(startDate, endDate));
+        } finally {
+            running.set(false);
+        }
+    }
+
+    int threads() {
+        return threads;
+    }
+
+    private int rebuildChunks(List<Chunk> chunks) {
+        logger.info("Rebuilding sales rollups of {} owner months with {} threads", chunks.size(), threads);
+        var executor = Executors.newFixedThreadPool(threads, new CustomizableThreadFactory("sales-rollup-rebuilder-"));
+        try {
+            var futures = new ArrayList<Future<Integer>>(chunks.size());
+            for (var chunk : chunks) {
+                futures.add(executor.submit(() -> salesRollupRepository.rebuild(chunk.ownerId(), chunk.month())));
+            }
+            var orders = 0;
+            for (var future : futures) {
+                orders += future.get();
+            }
+            logger.info("Sales rollups of {} owner months rebuilt from {} paid orders", chunks.size(), orders);
+            return orders;
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException(e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException runtimeException) {
+                throw runtimeException;
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    List<Chunk> findChunks(LocalDate startDate, LocalDate endDate) {
+        var chunks = new ArrayList<Chunk>();
+        for (var range : salesRollupRepository.findOrderDateRanges()) {
+            var firstMonth = SalesPeriod.MONTH.bucketOf(range.firstDate().isAfter(startDate) ? range.firstDate() : startDate);
+            var lastMonth = SalesPeriod.MONTH.bucketOf(range.lastDate().isBefore(endDate) ? range.lastDate() : endDate);
+            for (var month = firstMonth; !month.isAfter(lastMonth); month = month.plusMonths(1)) {
+                chunks.add(new Chunk(range.ownerId(), month));
+            }
+        }
+        chunks.sort(Comparator.comparing(Chunk::month).thenComparing(Chunk::ownerId));
+        return chunks;
+    }
+
+    record Chunk(Long ownerId, LocalDate month) {
+    }
+
+}
@@ -0,0 +1,72 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.Repository;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface SalesRollupRepository extends Repository<SalesRollup, Long> {
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.dashboard.SalesBucket(r.bucket, r.amount, r.units, r.orders)
+            FROM SalesRollup r
+            WHERE r.owner = :owner AND r.period = :period AND r.bucket BETWEEN :startDate AND :endDate AND r.orders <> 0
+            ORDER BY r.bucket
+            """)
+    List<SalesBucket> findBuckets(
+            @Param("period") SalesPeriod period,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("owner") User owner
+    );
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.dashboard.ProductSales(p.id, p.name, SUM(r.amount), SUM(r.units), SUM(r.orders))
+            FROM ProductSalesRollup r JOIN r.product p
+            WHERE r.owner = :owner AND r.period = :period AND r.bucket BETWEEN :startDate AND :endDate
+            GROUP BY p.id, p.name
+            HAVING SUM(r.orders) <> 0
+            ORDER BY SUM(r.amount) DESC, p.name
+            """)
+    List<ProductSales> findProductSales(
+            @Param("period") SalesPeriod period,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("owner") User owner,
+            Limit limit
+    );
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.dashboard.CategorySales(c.id, c.name, SUM(r.amount), SUM(r.units), SUM(r.orders))
+            FROM ProductSalesRollup r JOIN r.product p LEFT JOIN p.category c
+            WHERE r.owner = :owner AND r.period = :period AND r.bucket BETWEEN :startDate AND :endDate
+            GROUP BY c.id, c.name
+            HAVING SUM(r.orders) <> 0
+            ORDER BY SUM(r.amount) DESC, c.name
+            """)
+    List<CategorySales> findCategorySales(
+            @Param("period") SalesPeriod period,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("owner") User owner
+    );
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.dashboard.SalesRollupRange(o.owner.id, MIN(o.date), MAX(o.date))
+            FROM Order o
+            GROUP BY o.owner.id
+            """)
+    List<SalesRollupRange> findOrderDateRanges();
+
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = "SELECT rebuild_sales_rollups(:ownerId, :month)", nativeQuery = true)
+    int rebuild(@Param("ownerId") long ownerId, @Param("month") LocalDate month);
+
+}
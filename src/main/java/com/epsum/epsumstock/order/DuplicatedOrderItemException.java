@@ -0,0 +1,9 @@
+package com.epsum.epsumstock.order;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.BAD_REQUEST)
+public class DuplicatedOrderItemException extends RuntimeException {
+
+}
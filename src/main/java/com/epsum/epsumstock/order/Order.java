@@ -4,16 +4,21 @@ import jakarta.persistence.*;
 import jakarta.validation.constraints.NotEmpty;
 import jakarta.validation.constraints.NotNull;
 import org.hibernate.annotations.CreationTimestamp;
-import org.hibernate.annotations.Generated;
 import org.hibernate.validator.constraints.UniqueElements;
 
 import com.epsum.epsumstock.customer.Customer;
 import com.epsum.epsumstock.user.User;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Objects;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Entity
@@ -21,10 +26,10 @@ import java.util.stream.IntStream;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_id_seq")
+    @SequenceGenerator(name = "order_id_seq", sequenceName = "order_id_seq", allocationSize = 50)
     private Long id;
 
-    @Generated
     @Column(nullable = false)
     private Integer number;
 
@@ -47,10 +52,19 @@ public class Order {
     @OneToMany(mappedBy = "order", cascade = CascadeType.ALL, orphanRemoval = true)
     private List<OrderItem> items = new ArrayList<>();
 
+    @Column(nullable = false)
+    private Integer totalQuantity = 0;
+
+    @Column(nullable = false)
+    private BigDecimal totalAmount = BigDecimal.ZERO;
+
     @NotNull
     @ManyToOne(optional = false)
     private User owner;
 
+    @Column(insertable = false, updatable = false)
+    private Instant modificationTime;
+
     public Order() {}
 
     public Order(Long id, OrderStatus status, LocalDate date, Customer customer, List<OrderItem> items, User owner) {
@@ -74,6 +88,10 @@ public class Order {
         return number;
     }
 
+    public void setNumber(Integer number) {
+        this.number = number;
+    }
+
     public OrderStatus getStatus() {
         return status;
     }
@@ -99,28 +117,51 @@ public class Order {
     }
 
     public void setItems(List<OrderItem> items) {
+        var existingItems = this.items.stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+        var updatedItems = new HashSet<Long>(items.size());
         IntStream.range(0, items.size()).forEach(i -> {
-            items.get(i).setOrder(this);
-            items.get(i).setIndex(i);
+            var item = items.get(i);
+            var existingItem = existingItems.get(item.getProduct().getId());
+            updatedItems.add(item.getProduct().getId());
+            if (existingItem == null) {
+                item.setOrder(this);
+                item.setIndex(i);
+                this.items.add(item);
+                return;
+            }
+            if (!Objects.equals(existingItem.getQuantity(), item.getQuantity())) existingItem.setQuantity(item.getQuantity());
+            if (!Objects.equals(existingItem.getIndex(), i)) existingItem.setIndex(i);
         });
-        this.items.clear();
-        this.items.addAll(items);
+        this.items.removeIf(item -> !updatedItems.contains(item.getProduct().getId()));
+        this.items.sort(Comparator.comparing(OrderItem::getIndex));
     }
 
     public int getQuantity() {
-        return items.stream()
-                .map(OrderItem::getQuantity)
-                .reduce(Integer::sum)
-                .orElse(0);
+        return totalQuantity;
     }
 
     public BigDecimal getAmount() {
-        return items.stream()
+        return totalAmount;
+    }
+
+    @PrePersist
+    public void calculateTotals() {
+        totalQuantity = items.stream()
+                .map(OrderItem::getQuantity)
+                .reduce(Integer::sum)
+                .orElse(0);
+        totalAmount = items.stream()
                 .map(OrderItem::getAmount)
                 .reduce(BigDecimal::add)
                 .orElse(BigDecimal.ZERO);
     }
 
+    public void adjustTotals(int quantityChange, BigDecimal amountChange) {
+        totalQuantity += quantityChange;
+        totalAmount = totalAmount.add(amountChange);
+    }
+
     public User getOwner() {
         return owner;
     }
@@ -129,6 +170,10 @@ public class Order {
         this.owner = owner;
     }
 
+    public Instant getModificationTime() {
+        return modificationTime;
+    }
+
     public OrderForm toForm() {
         return new OrderForm(
                 status,
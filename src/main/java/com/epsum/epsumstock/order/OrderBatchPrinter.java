@@ -0,0 +1,161 @@
+package com.epsum.epsumstock.order;
+
+import com.lowagie.text.DocumentException;
+import com.lowagie.text.pdf.PdfCopy;
+import com.lowagie.text.pdf.PdfReader;
+import jakarta.persistence.EntityManager;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.DocumentGenerationUnavailableException;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+@Service
+public class OrderBatchPrinter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderBatchPrinter.class);
+    private static final int CHUNK_SIZE = 50;
+
+    private final OrderRepository orderRepository;
+    private final OrderDocumentGenerator orderDocumentGenerator;
+    private final EntityManager entityManager;
+    private final int window;
+
+    public OrderBatchPrinter(OrderRepository orderRepository, OrderDocumentGenerator orderDocumentGenerator, EntityManager entityManager, @Value("${order-batch-printer.window:4}") int window) {
+        this.orderRepository = orderRepository;
+        this.orderDocumentGenerator = orderDocumentGenerator;
+        this.entityManager = entityManager;
+        this.window = window;
+    }
+
+    public List<Long> findOrderIds(List<Long> ids, User owner) {
+        var ownedIds = new HashSet<>(orderRepository.findIdsByIdInAndOwner(ids, owner));
+        return ids.stream().distinct().filter(ownedIds::contains).toList();
+    }
+
+    public List<Long> findOrderIds(OrderStatus status, LocalDate startDate, LocalDate endDate, User owner) {
+        return orderRepository.findIdsByStatusAndDateRange(status, startDate, endDate, owner);
+    }
+
+    public void printOrders(OrderPrintFormat format, List<Long> ids, User owner, Locale locale, OutputStream outputStream) throws IOException {
+        logger.info("Printing {} orders as {} for user {}", ids.size(), format, owner.getEmail());
+        switch (format) {
+            case PDF -> printMergedPdf(ids, owner, locale, outputStream);
+            case ZIP -> printZip(ids, owner, locale, outputStream);
+        }
+    }
+
+    private void printMergedPdf(List<Long> ids, User owner, Locale locale, OutputStream outputStream) throws IOException {
+        var pdf = new com.lowagie.text.Document();
+        try {
+            var copy = new PdfCopy(pdf, outputStream);
+            copy.setCloseStream(false);
+            pdf.open();
+            print(ids, owner, locale, document -> {
+                try (var content = document.content().getInputStream()) {
+                    var reader = new PdfReader(content);
+                    for (int page = 1; page <= reader.getNumberOfPages(); page++) {
+                        copy.addPage(copy.getImportedPage(reader, page));
+                    }
+                    copy.freeReader(reader);
+                    reader.close();
+                } catch (DocumentException e) {
+                    throw new IOException(e);
+                }
+            });
+            pdf.close();
+        } catch (DocumentException e) {
+            throw new IOException(e);
+        }
+    }
+
+    private void printZip(List<Long> ids, User owner, Locale locale, OutputStream outputStream) throws IOException {
+        var zip = new ZipOutputStream(outputStream);
+        print(ids, owner, locale, document -> {
+            zip.putNextEntry(new ZipEntry(document.filename()));
+            try (var content = document.content().getInputStream()) {
+                content.transferTo(zip);
+            }
+            zip.closeEntry();
+        });
+        zip.finish();
+    }
+
+    private void print(List<Long> ids, User owner, Locale locale, DocumentWriter writer) throws IOException {
+        var pending = new ArrayDeque<Future<Document>>(window);
+        for (int from = 0; from < ids.size(); from += CHUNK_SIZE) {
+            var chunkIds = ids.subList(from, Math.min(from + CHUNK_SIZE, ids.size()));
+            var versions = orderRepository.findDocumentVersionsByIdInAndOwner(chunkIds, owner).stream()
+                    .collect(Collectors.toMap(OrderDocumentVersion::id, Function.identity()));
+            var uncachedIds = chunkIds.stream()
+                    .filter(id -> versions.containsKey(id) && !orderDocumentGenerator.isOrderDocumentCached(versions.get(id), locale))
+                    .toList();
+            var orders = new HashMap<Long, Order>();
+            if (!uncachedIds.isEmpty()) {
+                orderRepository.findAllWithItemsByIdInAndOwner(uncachedIds, owner).forEach(order -> orders.put(order.getId(), order));
+            }
+            for (var id : chunkIds) {
+                var version = versions.get(id);
+                if (version == null) {
+                    logger.info("Order with id {} of user {} deleted while printing, skipping", id, owner.getEmail());
+                    continue;
+                }
+                if (pending.size() == window) {
+                    writer.write(orderDocumentGenerator.awaitOrderDocument(pending.remove()));
+                }
+                submit(version, () -> orders.computeIfAbsent(id, orderId -> loadOrder(orderId, owner)), locale, pending, writer);
+            }
+            entityManager.clear();
+        }
+        while (!pending.isEmpty()) {
+            writer.write(orderDocumentGenerator.awaitOrderDocument(pending.remove()));
+        }
+    }
+
+    private Order loadOrder(long id, User owner) {
+        return orderRepository.findAllWithItemsByIdInAndOwner(List.of(id), owner).stream()
+                .findFirst()
+                .orElseThrow(OrderNotFoundException::new);
+    }
+
+    private void submit(OrderDocumentVersion version, Supplier<Order> loader, Locale locale, Deque<Future<Document>> pending, DocumentWriter writer) throws IOException {
+        while (true) {
+            try {
+                pending.add(orderDocumentGenerator.submitOrderDocument(version, loader, locale));
+                return;
+            } catch (DocumentGenerationUnavailableException e) {
+                if (pending.isEmpty()) {
+                    throw e;
+                }
+                logger.info("Document generator saturated, waiting for pending order documents");
+                writer.write(orderDocumentGenerator.awaitOrderDocument(pending.remove()));
+            }
+        }
+    }
+
+    private interface DocumentWriter {
+
+        void write(Document document) throws IOException;
+
+    }
+
+}
@@ -2,50 +2,71 @@ package com.epsum.epsumstock.order;
 
 import jakarta.servlet.http.HttpSession;
 import jakarta.validation.Valid;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.io.Resource;
+import org.springframework.data.domain.Page;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.core.annotation.AuthenticationPrincipal;
 import org.springframework.stereotype.Controller;
 import org.springframework.ui.Model;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 
-import com.epsum.epsumstock.customer.CustomerService;
-import com.epsum.epsumstock.product.ProductService;
+import com.epsum.epsumstock.customer.CustomerTypeahead;
+import com.epsum.epsumstock.product.ProductTypeahead;
 import com.epsum.epsumstock.user.User;
 
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+
 @Controller
 @RequestMapping("/orders")
 public class OrderController {
 
     private final OrderService orderService;
-    private final ProductService productService;
-    private final CustomerService customerService;
+    private final ProductTypeahead productTypeahead;
+    private final CustomerTypeahead customerTypeahead;
+    private final OrderExporter orderExporter;
+    private final OrderBatchPrinter orderBatchPrinter;
 
-    public OrderController(OrderService orderService, ProductService productService, CustomerService customerService) {
+    public OrderController(OrderService orderService, ProductTypeahead productTypeahead, CustomerTypeahead customerTypeahead, OrderExporter orderExporter, OrderBatchPrinter orderBatchPrinter) {
         this.orderService = orderService;
-        this.productService = productService;
-        this.customerService = customerService;
+        this.productTypeahead = productTypeahead;
+        this.customerTypeahead = customerTypeahead;
+        this.orderExporter = orderExporter;
+        this.orderBatchPrinter = orderBatchPrinter;
     }
 
     @GetMapping("/create")
-    public String retrieveCreateOrderPage(@AuthenticationPrincipal User user, Model model) {
+    public String retrieveCreateOrderPage(Model model) {
         model.addAttribute("order", new OrderForm());
-        model.addAttribute("customers", customerService.listCustomers(user));
-        model.addAttribute("products", productService.listProducts(user));
+        model.addAttribute("submissionToken", UUID.randomUUID().toString());
+        model.addAttribute("customer", null);
+        model.addAttribute("products", List.of());
         model.addAttribute("mode", "create");
         return "order/order-form";
     }
 
     @PostMapping("/create")
-    public String createOrder(@AuthenticationPrincipal User user, @Valid @ModelAttribute OrderForm order, Model model) {
+    public String createOrder(
+            @AuthenticationPrincipal User user,
+            @Valid @ModelAttribute OrderForm order,
+            @RequestParam(name = "submission-token", required = false) String submissionToken,
+            Model model
+    ) {
         try {
-            orderService.createOrder(order.toEntity(), user);
+            orderService.createOrder(order.toEntity(), submissionToken, user);
         } catch (ProductWithInsufficientStockException e) {
             model.addAttribute("insufficientStock", true);
             model.addAttribute("order", order);
-            model.addAttribute("customers", customerService.listCustomers(user));
-            model.addAttribute("products", productService.listProducts(user));
+            model.addAttribute("submissionToken", submissionToken);
+            addSelectedOptions(order, user, model);
             model.addAttribute("mode", "create");
             return "order/order-form";
         }
@@ -56,14 +77,15 @@ public class OrderController {
     public String listOrders(
             @AuthenticationPrincipal User user,
             @RequestParam("status") OrderStatus status,
-            @RequestParam(name = "page", defaultValue = "1") int page,
+            @RequestParam(name = "after", required = false) OrderCursor after,
+            @RequestParam(name = "before", required = false) OrderCursor before,
             Model model,
             HttpSession session
     ) {
-        var orderPage = orderService.listOrders(status, page, user);
-        model.addAttribute("orders", orderPage.getContent());
-        model.addAttribute("currentPage", orderPage.getNumber() + 1);
-        model.addAttribute("totalPages", orderPage.getTotalPages());
+        var orderSlice = orderService.listOrders(status, after, before, user);
+        model.addAttribute("orders", orderSlice.orders());
+        model.addAttribute("previous", orderSlice.previous());
+        model.addAttribute("next", orderSlice.next());
         session.setAttribute("status", status);
         return "order/order-table";
     }
@@ -81,24 +103,68 @@ public class OrderController {
     }
 
     @GetMapping("/update/{id}")
-    public String retrieveUpdateOrderPage(@AuthenticationPrincipal User user, @PathVariable("id") long id, Model model) {
+    public String retrieveUpdateOrderPage(
+            @AuthenticationPrincipal User user,
+            @PathVariable("id") long id,
+            @RequestParam(name = "page", defaultValue = "1") int page,
+            Model model
+    ) {
         var order = orderService.findOrder(id, user);
-        model.addAttribute("order", order.toForm());
-        model.addAttribute("id", order.getId());
-        model.addAttribute("customers", customerService.listCustomers(user));
-        model.addAttribute("products", productService.listProducts(user));
+        var items = addItemsPage(id, page, user, model);
+        var form = new OrderForm(order.getStatus(), order.getCustomer().getId(), items.getContent().stream().map(OrderItem::toForm).toList());
+        model.addAttribute("order", form);
+        model.addAttribute("id", id);
+        model.addAttribute("submissionToken", UUID.randomUUID().toString());
+        model.addAttribute("totalAmount", order.getAmount());
+        addSelectedOptions(form, user, model);
         model.addAttribute("mode", "update");
         return "order/order-form";
     }
 
     @GetMapping("/print/{id}")
-    public ResponseEntity<?> printOrder(@AuthenticationPrincipal User user, @PathVariable("id") long id) {
-        var document = orderService.printOrder(id, user);
-        return ResponseEntity.ok()
+    public CompletableFuture<ResponseEntity<Resource>> printOrder(@AuthenticationPrincipal User user, @PathVariable("id") long id) {
+        return orderService.printOrder(id, user).thenApply(document -> ResponseEntity.ok()
                 .contentType(MediaType.APPLICATION_PDF)
                 .header("Content-Disposition", "attachment; filename=" + document.filename())
                 .contentLength(document.size())
-                .body(document.content().toByteArray());
+                .body(document.content()));
+    }
+
+    @PostMapping("/print")
+    public ResponseEntity<StreamingResponseBody> printOrders(
+            @AuthenticationPrincipal User user,
+            @RequestParam("format") OrderPrintFormat format,
+            @RequestParam(name = "ids", required = false) List<Long> ids,
+            @RequestParam(name = "start-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "end-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            HttpSession session
+    ) {
+        var currentStatus = (OrderStatus) session.getAttribute("status");
+        List<Long> orderIds = List.of();
+        if (ids != null && !ids.isEmpty()) {
+            orderIds = orderBatchPrinter.findOrderIds(ids, user);
+        } else if (currentStatus != null && startDate != null && endDate != null) {
+            orderIds = orderBatchPrinter.findOrderIds(currentStatus, startDate, endDate, user);
+        }
+        if (orderIds.isEmpty()) {
+            throw new OrderNotFoundException();
+        }
+        var printedIds = orderIds;
+        var locale = LocaleContextHolder.getLocale();
+        StreamingResponseBody body = outputStream -> orderBatchPrinter.printOrders(format, printedIds, user, locale, outputStream);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header("Content-Disposition", "attachment; filename=orders." + format.getExtension())
+                .body(body);
+    }
+
+    @GetMapping("/export")
+    public ResponseEntity<StreamingResponseBody> exportOrders(@AuthenticationPrincipal User user, @RequestParam("format") OrderExportFormat format) {
+        StreamingResponseBody body = outputStream -> orderExporter.exportOrders(format, user, outputStream);
+        return ResponseEntity.ok()
+                .contentType(format.getMediaType())
+                .header("Content-Disposition", "attachment; filename=orders." + format.getExtension())
+                .body(body);
     }
 
     @PostMapping("/update/{id}")
@@ -106,18 +172,19 @@ public class OrderController {
             @AuthenticationPrincipal User user,
             @PathVariable("id") long id,
             @Valid @ModelAttribute OrderForm order,
+            @RequestParam(name = "submission-token", required = false) String submissionToken,
             Model model,
             RedirectAttributes redirectAttributes,
             HttpSession session
     ) {
         try {
-            orderService.updateOrder(id, order.toEntity(), user);
+            orderService.updateOrder(id, order.toEntity(), submissionToken, user);
         } catch (ProductWithInsufficientStockException e) {
             model.addAttribute("insufficientStock", true);
             model.addAttribute("order", order);
             model.addAttribute("id", id);
-            model.addAttribute("customers", customerService.listCustomers(user));
-            model.addAttribute("products", productService.listProducts(user));
+            model.addAttribute("submissionToken", submissionToken);
+            addSelectedOptions(order, user, model);
             model.addAttribute("mode", "update");
             return "order/order-form";
         }
@@ -125,6 +192,54 @@ public class OrderController {
         return "redirect:/orders/list";
     }
 
+    @PostMapping("/update/{id}/items")
+    public String updateOrderItems(
+            @AuthenticationPrincipal User user,
+            @PathVariable("id") long id,
+            @RequestParam(name = "page", defaultValue = "1") int page,
+            @Valid @ModelAttribute OrderForm order,
+            @RequestParam(name = "page-product-ids", required = false) List<Long> pageProductIds,
+            @RequestParam(name = "submission-token", required = false) String submissionToken,
+            Model model,
+            RedirectAttributes redirectAttributes
+    ) {
+        try {
+            orderService.updateOrderItems(id, order.toEntity(), pageProductIds != null ? pageProductIds : List.of(), submissionToken, user);
+        } catch (ProductWithInsufficientStockException | DuplicatedOrderItemException e) {
+            model.addAttribute(e instanceof DuplicatedOrderItemException ? "duplicatedItem" : "insufficientStock", true);
+            model.addAttribute("order", order);
+            model.addAttribute("id", id);
+            model.addAttribute("submissionToken", submissionToken);
+            model.addAttribute("totalAmount", orderService.findOrder(id, user).getAmount());
+            addItemsPage(id, page, user, model);
+            addSelectedOptions(order, user, model);
+            model.addAttribute("mode", "update");
+            return "order/order-form";
+        }
+        redirectAttributes.addAttribute("page", page);
+        return "redirect:/orders/update/{id}";
+    }
+
+    @PostMapping("/status")
+    public String updateOrderStatus(
+            @AuthenticationPrincipal User user,
+            @RequestParam("status") OrderStatus status,
+            @RequestParam(name = "ids", required = false) List<Long> ids,
+            @RequestParam(name = "start-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @RequestParam(name = "end-date", required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate endDate,
+            RedirectAttributes redirectAttributes,
+            HttpSession session
+    ) {
+        var currentStatus = (OrderStatus) session.getAttribute("status");
+        if (ids != null && !ids.isEmpty()) {
+            orderService.updateOrderStatus(ids, status, user);
+        } else if (currentStatus != null && startDate != null && endDate != null) {
+            orderService.updateOrderStatus(currentStatus, startDate, endDate, status, user);
+        }
+        redirectAttributes.addAttribute("status", currentStatus != null ? currentStatus : status);
+        return "redirect:/orders/list";
+    }
+
     @PostMapping("/delete/{id}")
     public String deleteOrder(@AuthenticationPrincipal User user, @PathVariable("id") long id, RedirectAttributes redirectAttributes, HttpSession session) {
         orderService.deleteOrder(id, user);
@@ -132,4 +247,22 @@ public class OrderController {
         return "redirect:/orders/list";
     }
 
+    private Page<OrderItem> addItemsPage(long id, int page, User user, Model model) {
+        var items = orderService.findOrderItems(id, page, user);
+        model.addAttribute("largeOrder", items.getTotalPages() > 1);
+        model.addAttribute("currentPage", items.getNumber() + 1);
+        model.addAttribute("totalPages", items.getTotalPages());
+        model.addAttribute("pageProductIds", items.getContent().stream().map(item -> item.getProduct().getId()).toList());
+        return items;
+    }
+
+    private void addSelectedOptions(OrderForm order, User user, Model model) {
+        var customerIds = order.getCustomerId() != null ? List.of(order.getCustomerId()) : List.<Long>of();
+        var productIds = order.getItems() != null
+                ? order.getItems().stream().map(OrderItemForm::getProductId).filter(Objects::nonNull).toList()
+                : List.<Long>of();
+        model.addAttribute("customer", customerTypeahead.findAll(customerIds, user).stream().findFirst().orElse(null));
+        model.addAttribute("products", productTypeahead.findAll(productIds, user));
+    }
+
 }
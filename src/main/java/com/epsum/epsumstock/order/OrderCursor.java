@@ -0,0 +1,24 @@
+package com.epsum.epsumstock.order;
+
+import java.time.LocalDate;
+
+public record OrderCursor(LocalDate date, long id) {
+
+    public static OrderCursor of(OrderSummary order) {
+        return new OrderCursor(order.getDate(), order.getId());
+    }
+
+    public static OrderCursor of(String cursor) {
+        var separator = cursor.lastIndexOf('_');
+        if (separator == -1) {
+            throw new IllegalArgumentException("Invalid order cursor " + cursor);
+        }
+        return new OrderCursor(LocalDate.parse(cursor.substring(0, separator)), Long.parseLong(cursor.substring(separator + 1)));
+    }
+
+    @Override
+    public String toString() {
+        return date + "_" + id;
+    }
+
+}
@@ -3,35 +3,111 @@ package com.epsum.epsumstock.order;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.context.MessageSource;
-import org.springframework.context.i18n.LocaleContextHolder;
 import org.springframework.stereotype.Service;
 
 import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.DocumentCache;
 import com.epsum.epsumstock.util.DocumentGenerator;
 
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.List;
+import java.util.Locale;
 import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.stream.IntStream;
 
 @Service
 public class OrderDocumentGenerator {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderDocumentGenerator.class);
+    private static final int ROWS_PER_PASS = 250;
 
     private final DocumentGenerator documentGenerator;
+    private final DocumentCache documentCache;
     private final MessageSource messageSource;
 
-    public OrderDocumentGenerator(DocumentGenerator documentGenerator, MessageSource messageSource) {
+    public OrderDocumentGenerator(DocumentGenerator documentGenerator, DocumentCache documentCache, MessageSource messageSource) {
         this.documentGenerator = documentGenerator;
+        this.documentCache = documentCache;
         this.messageSource = messageSource;
     }
 
-    public Document generateOrderDocument(Order order) {
-        var prefix = messageSource.getMessage("order-document.file-prefix", null, LocaleContextHolder.getLocale());
-        var filename = String.format("%s_N%d_%s.pdf", prefix, order.getNumber(), order.getDate());
+    public void prerenderOrderDocument(Order order, Locale locale) {
+        var version = version(order);
+        if (isOrderDocumentCached(version, locale)) {
+            return;
+        }
+        var filename = filename(version, locale);
+        logger.info("Prerendering order document");
+        documentCache.put(key(version.id()), version(version, locale), documentGenerator.generate(filename, render(order, locale)));
+    }
+
+    public boolean isOrderDocumentCached(OrderDocumentVersion version, Locale locale) {
+        return documentCache.contains(key(version.id()), version(version, locale));
+    }
+
+    public CompletableFuture<Document> submitOrderDocument(OrderDocumentVersion version, Supplier<Order> loader, Locale locale) {
+        var filename = filename(version, locale);
+        var key = key(version.id());
+        var cacheVersion = version(version, locale);
+        var document = documentCache.find(key, cacheVersion, filename);
+        if (document.isPresent()) {
+            return CompletableFuture.completedFuture(document.get());
+        }
+        logger.info("Submitting order document");
+        return documentGenerator.submit(filename, render(loader.get(), locale), generated -> {
+            documentCache.put(key, cacheVersion, generated);
+            return documentCache.find(key, cacheVersion, filename).orElse(generated);
+        });
+    }
+
+    public Document awaitOrderDocument(Future<Document> future) {
+        return documentGenerator.await(future);
+    }
+
+    public void evictOrderDocuments(Collection<Long> ids) {
+        ids.forEach(id -> documentCache.evict(key(id)));
+    }
+
+    private String filename(OrderDocumentVersion version, Locale locale) {
+        var prefix = messageSource.getMessage("order-document.file-prefix", null, locale);
+        return String.format("%s_N%d_%s.pdf", prefix, version.number(), version.date());
+    }
+
+    private List<String> render(Order order, Locale locale) {
         var template = "order/order-document";
-        var variables = Map.<String, Object>of("order", order);
-        var locale = LocaleContextHolder.getLocale();
-        logger.info("Generating order document");
-        return documentGenerator.generate(filename, template, variables, locale);
+        var items = order.getItems();
+        var passes = Math.max(1, (items.size() + ROWS_PER_PASS - 1) / ROWS_PER_PASS);
+        return IntStream.range(0, passes).mapToObj(pass -> {
+            var variables = Map.<String, Object>of(
+                    "order", order,
+                    "items", items.subList(pass * ROWS_PER_PASS, Math.min((pass + 1) * ROWS_PER_PASS, items.size())),
+                    "first", pass == 0,
+                    "last", pass == passes - 1
+            );
+            return documentGenerator.render(template, variables, locale);
+        }).toList();
+    }
+
+    private String key(Long id) {
+        return "order-" + id;
+    }
+
+    private String version(OrderDocumentVersion version, Locale locale) {
+        return locale.toLanguageTag() + "-" + ChronoUnit.MICROS.between(Instant.EPOCH, version.modificationTime());
+    }
+
+    private OrderDocumentVersion version(Order order) {
+        var modificationTime = order.getItems().stream()
+                .map(item -> item.getProduct().getNameModificationTime())
+                .filter(Objects::nonNull)
+                .reduce(order.getModificationTime(), (a, b) -> a.isAfter(b) ? a : b);
+        return new OrderDocumentVersion(order.getId(), order.getNumber(), order.getDate(), modificationTime);
     }
 
 }
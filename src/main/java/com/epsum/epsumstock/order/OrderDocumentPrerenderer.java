@@ -0,0 +1,44 @@
+package com.epsum.epsumstock.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import com.epsum.epsumstock.util.DocumentGenerationUnavailableException;
+
+@Service
+@ConditionalOnProperty(name = "order-document.prerender-paid", havingValue = "true")
+public class OrderDocumentPrerenderer {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderDocumentPrerenderer.class);
+
+    private final OrderRepository orderRepository;
+    private final OrderDocumentGenerator orderDocumentGenerator;
+
+    public OrderDocumentPrerenderer(OrderRepository orderRepository, OrderDocumentGenerator orderDocumentGenerator) {
+        this.orderRepository = orderRepository;
+        this.orderDocumentGenerator = orderDocumentGenerator;
+    }
+
+    @Async
+    @TransactionalEventListener
+    @Transactional(propagation = Propagation.REQUIRES_NEW, readOnly = true)
+    public void prerenderOrderDocuments(OrderPaidEvent event) {
+        var orders = orderRepository.findAllWithItemsByIdInAndOwner(event.ids(), event.owner());
+        for (var order : orders) {
+            try {
+                orderDocumentGenerator.prerenderOrderDocument(order, event.locale());
+            } catch (DocumentGenerationUnavailableException e) {
+                logger.info("Document generator unavailable, skipping prerendering of remaining paid orders of user {}", event.owner().getEmail());
+                return;
+            }
+        }
+        logger.info("Prerendered {} paid order documents for user {}", orders.size(), event.owner().getEmail());
+    }
+
+}
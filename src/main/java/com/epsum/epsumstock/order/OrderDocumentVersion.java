@@ -0,0 +1,8 @@
+package com.epsum.epsumstock.order;
+
+import java.time.Instant;
+import java.time.LocalDate;
+
+public record OrderDocumentVersion(Long id, Integer number, LocalDate date, Instant modificationTime) {
+
+}
@@ -0,0 +1,26 @@
+package com.epsum.epsumstock.order;
+
+import org.springframework.http.MediaType;
+
+public enum OrderExportFormat {
+
+    CSV(MediaType.parseMediaType("text/csv"), "csv"),
+    JSONL(MediaType.APPLICATION_NDJSON, "jsonl");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    OrderExportFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
@@ -0,0 +1,14 @@
+package com.epsum.epsumstock.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public record OrderExportLine(
+        Integer number,
+        OrderStatus status,
+        LocalDate date,
+        String customerName,
+        String productName,
+        Integer quantity,
+        BigDecimal price
+) {}
@@ -0,0 +1,69 @@
+package com.epsum.epsumstock.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.opencsv.CSVWriter;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epsum.epsumstock.user.User;
+
+import java.io.*;
+import java.nio.charset.StandardCharsets;
+import java.util.Iterator;
+
+@Service
+public class OrderExporter {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderExporter.class);
+    private static final String[] CSV_HEADER = { "number", "status", "date", "customer", "product", "quantity", "price" };
+
+    private final OrderRepository orderRepository;
+    private final ObjectMapper objectMapper;
+
+    public OrderExporter(OrderRepository orderRepository, ObjectMapper objectMapper) {
+        this.orderRepository = orderRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOrders(OrderExportFormat format, User owner, OutputStream outputStream) throws IOException {
+        logger.info("Exporting orders as {} for user {}", format, owner.getEmail());
+        var writer = new BufferedWriter(new OutputStreamWriter(outputStream, StandardCharsets.UTF_8));
+        try (var lines = orderRepository.streamExportLinesByOwner(owner)) {
+            switch (format) {
+                case CSV -> writeCsv(lines.iterator(), writer);
+                case JSONL -> writeJsonLines(lines.iterator(), writer);
+            }
+        }
+        writer.flush();
+    }
+
+    private void writeCsv(Iterator<OrderExportLine> lines, Writer writer) throws IOException {
+        var csvWriter = new CSVWriter(writer, ';', CSVWriter.DEFAULT_QUOTE_CHARACTER, CSVWriter.DEFAULT_ESCAPE_CHARACTER, CSVWriter.DEFAULT_LINE_END);
+        csvWriter.writeNext(CSV_HEADER, false);
+        while (lines.hasNext()) {
+            var line = lines.next();
+            csvWriter.writeNext(new String[] {
+                    String.valueOf(line.number()),
+                    line.status().name(),
+                    line.date().toString(),
+                    line.customerName(),
+                    line.productName(),
+                    String.valueOf(line.quantity()),
+                    line.price().toPlainString()
+            }, false);
+        }
+        csvWriter.flush();
+    }
+
+    private void writeJsonLines(Iterator<OrderExportLine> lines, Writer writer) throws IOException {
+        var lineWriter = objectMapper.writerFor(OrderExportLine.class);
+        while (lines.hasNext()) {
+            writer.write(lineWriter.writeValueAsString(lines.next()));
+            writer.write('\n');
+        }
+    }
+
+}
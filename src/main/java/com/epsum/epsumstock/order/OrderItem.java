@@ -35,12 +35,16 @@ public class OrderItem {
     @Column(nullable = false)
     private Integer index;
 
+    @Column(nullable = false)
+    private BigDecimal price;
+
     public OrderItem() {}
 
     public OrderItem(Integer quantity, Product product, Order order) {
         this.quantity = quantity;
         this.product = product;
         this.order = order;
+        this.price = product != null ? product.getPrice() : null;
     }
 
     public OrderItem(Integer quantity, Product product) {
@@ -71,8 +75,16 @@ public class OrderItem {
         this.order = order;
     }
 
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
     public BigDecimal getAmount() {
-        return product.getPrice().multiply(BigDecimal.valueOf(quantity));
+        return price.multiply(BigDecimal.valueOf(quantity));
     }
 
     public Integer getIndex() {
@@ -97,7 +109,7 @@ public class OrderItem {
     }
 
     public OrderItemForm toForm() {
-        return new OrderItemForm(quantity, product.getId());
+        return new OrderItemForm(quantity, product.getId(), price);
     }
 
 }
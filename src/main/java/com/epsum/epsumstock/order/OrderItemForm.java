@@ -3,6 +3,7 @@ package com.epsum.epsumstock.order;
 import jakarta.validation.constraints.Min;
 import jakarta.validation.constraints.NotNull;
 
+import java.math.BigDecimal;
 import java.util.Objects;
 
 import com.epsum.epsumstock.product.Product;
@@ -16,6 +17,8 @@ public class OrderItemForm {
     @NotNull
     private Long productId;
 
+    private BigDecimal price;
+
     public OrderItemForm() {}
 
     public OrderItemForm(Integer quantity, Long productId) {
@@ -23,6 +26,12 @@ public class OrderItemForm {
         this.productId = productId;
     }
 
+    public OrderItemForm(Integer quantity, Long productId, BigDecimal price) {
+        this.quantity = quantity;
+        this.productId = productId;
+        this.price = price;
+    }
+
     public Integer getQuantity() {
         return quantity;
     }
@@ -39,6 +48,14 @@ public class OrderItemForm {
         this.productId = productId;
     }
 
+    public BigDecimal getPrice() {
+        return price;
+    }
+
+    public void setPrice(BigDecimal price) {
+        this.price = price;
+    }
+
     @Override
     public boolean equals(Object other) {
         if (this == other) return true;
@@ -0,0 +1,44 @@
+package com.epsum.epsumstock.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+import com.epsum.epsumstock.user.User;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+@Service
+public class OrderNumberAllocator {
+
+    private static final Logger logger = LoggerFactory.getLogger(OrderNumberAllocator.class);
+    static final int BLOCK_SIZE = 50;
+
+    private final OrderRepository orderRepository;
+    private final Map<Long, NumberBlock> blocks = new ConcurrentHashMap<>();
+
+    public OrderNumberAllocator(OrderRepository orderRepository) {
+        this.orderRepository = orderRepository;
+    }
+
+    public int nextNumber(User owner) {
+        var block = blocks.computeIfAbsent(owner.getId(), ownerId -> new NumberBlock());
+        synchronized (block) {
+            if (block.next > block.last) {
+                block.last = orderRepository.reserveOrderNumbers(owner.getId(), BLOCK_SIZE);
+                block.next = block.last - BLOCK_SIZE + 1;
+                logger.info("Reserved order numbers {} to {} for user {}", block.next, block.last, owner.getEmail());
+            }
+            return block.next++;
+        }
+    }
+
+    private static class NumberBlock {
+
+        private int next = 1;
+        private int last = 0;
+
+    }
+
+}
@@ -0,0 +1,10 @@
+package com.epsum.epsumstock.order;
+
+import com.epsum.epsumstock.user.User;
+
+import java.util.List;
+import java.util.Locale;
+
+public record OrderPaidEvent(List<Long> ids, User owner, Locale locale) {
+
+}
@@ -0,0 +1,26 @@
+package com.epsum.epsumstock.order;
+
+import org.springframework.http.MediaType;
+
+public enum OrderPrintFormat {
+
+    PDF(MediaType.APPLICATION_PDF, "pdf"),
+    ZIP(MediaType.parseMediaType("application/zip"), "zip");
+
+    private final MediaType mediaType;
+    private final String extension;
+
+    OrderPrintFormat(MediaType mediaType, String extension) {
+        this.mediaType = mediaType;
+        this.extension = extension;
+    }
+
+    public MediaType getMediaType() {
+        return mediaType;
+    }
+
+    public String getExtension() {
+        return extension;
+    }
+
+}
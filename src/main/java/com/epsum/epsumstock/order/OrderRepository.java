@@ -1,14 +1,26 @@
 package com.epsum.epsumstock.order;
 
+import jakarta.persistence.LockModeType;
+import jakarta.persistence.QueryHint;
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
 
 import com.epsum.epsumstock.user.User;
 
+import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
 public interface OrderRepository extends JpaRepository<Order, Long> {
 
@@ -18,9 +30,142 @@ public interface OrderRepository extends JpaRepository<Order, Long> {
 
     Optional<Order> findByIdAndOwner(long id, User owner);
 
-    Page<Order> findAllByStatusAndOwner(OrderStatus status, User owner, Pageable pageable);
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Order> findForUpdateByIdAndOwner(long id, User owner);
 
-    List<Order> findAllByStatusAndCustomerNameContainingIgnoreCaseAndOwner(OrderStatus status, String customerName, User owner);
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderDocumentVersion(o.id, o.number, o.date, GREATEST(o.modificationTime, MAX(p.nameModificationTime)))
+            FROM Order o LEFT JOIN o.items i LEFT JOIN i.product p
+            WHERE o.id = :id AND o.owner = :owner
+            GROUP BY o.id, o.number, o.date, o.modificationTime
+            """)
+    Optional<OrderDocumentVersion> findDocumentVersionByIdAndOwner(@Param("id") long id, @Param("owner") User owner);
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderDocumentVersion(o.id, o.number, o.date, GREATEST(o.modificationTime, MAX(p.nameModificationTime)))
+            FROM Order o LEFT JOIN o.items i LEFT JOIN i.product p
+            WHERE o.id IN :ids AND o.owner = :owner
+            GROUP BY o.id, o.number, o.date, o.modificationTime
+            """)
+    List<OrderDocumentVersion> findDocumentVersionsByIdInAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") User owner);
+
+    @Query("""
+            SELECT o FROM Order o JOIN FETCH o.customer LEFT JOIN FETCH o.items i LEFT JOIN FETCH i.product
+            WHERE o.id IN :ids AND o.owner = :owner
+            """)
+    List<Order> findAllWithItemsByIdInAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") User owner);
+
+    @Query(value = """
+            SELECT i FROM OrderItem i JOIN FETCH i.product
+            WHERE i.order.id = :orderId AND i.order.owner = :owner
+            ORDER BY i.index
+            """, countQuery = "SELECT COUNT(i) FROM OrderItem i WHERE i.order.id = :orderId AND i.order.owner = :owner")
+    Page<OrderItem> findItemsByOrderIdAndOwner(@Param("orderId") long orderId, @Param("owner") User owner, Pageable pageable);
+
+    @Query("SELECT i FROM OrderItem i JOIN FETCH i.product WHERE i.order.id = :orderId AND i.product.id IN :productIds")
+    List<OrderItem> findItemsByOrderIdAndProductIdIn(@Param("orderId") long orderId, @Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT COALESCE(MAX(i.index), -1) FROM OrderItem i WHERE i.order.id = :orderId")
+    int findLastItemIndexByOrderId(@Param("orderId") long orderId);
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_item (order_id, product_id, quantity, price, "index")
+            SELECT :orderId, i.product_id, i.quantity, p.price, :firstIndex + i.position - 1
+            FROM unnest(:productIds, :quantities) WITH ORDINALITY AS i(product_id, quantity, position)
+            JOIN product p ON p.id = i.product_id
+            """, nativeQuery = true)
+    int insertItems(@Param("orderId") long orderId, @Param("productIds") Long[] productIds, @Param("quantities") Integer[] quantities, @Param("firstIndex") int firstIndex);
+
+    @Modifying
+    @Query("DELETE FROM OrderItem i WHERE i.order.id = :orderId AND i.product.id IN :productIds")
+    int deleteItemsByOrderIdAndProductIdIn(@Param("orderId") long orderId, @Param("productIds") Collection<Long> productIds);
+
+    @Query("SELECT o.id FROM Order o WHERE o.id IN :ids AND o.owner = :owner")
+    List<Long> findIdsByIdInAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") User owner);
+
+    @Query("""
+            SELECT o.id FROM Order o
+            WHERE o.status = :status AND o.owner = :owner AND o.date BETWEEN :startDate AND :endDate
+            ORDER BY o.date, o.id
+            """)
+    List<Long> findIdsByStatusAndDateRange(
+            @Param("status") OrderStatus status,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("owner") User owner
+    );
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderSummary(o.id, o.number, o.status, o.date, c.name, o.totalQuantity, o.totalAmount)
+            FROM Order o JOIN o.customer c
+            WHERE o.status = :status AND o.owner = :owner
+            ORDER BY o.date, o.id
+            """)
+    List<OrderSummary> findSummariesByStatusAndOwner(@Param("status") OrderStatus status, @Param("owner") User owner, Limit limit);
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderSummary(o.id, o.number, o.status, o.date, c.name, o.totalQuantity, o.totalAmount)
+            FROM Order o JOIN o.customer c
+            WHERE o.status = :status AND o.owner = :owner AND (o.date, o.id) > (:date, :id)
+            ORDER BY o.date, o.id
+            """)
+    List<OrderSummary> findSummariesByStatusAndOwnerAfter(@Param("status") OrderStatus status, @Param("owner") User owner, @Param("date") LocalDate date, @Param("id") long id, Limit limit);
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderSummary(o.id, o.number, o.status, o.date, c.name, o.totalQuantity, o.totalAmount)
+            FROM Order o JOIN o.customer c
+            WHERE o.status = :status AND o.owner = :owner AND (o.date, o.id) < (:date, :id)
+            ORDER BY o.date DESC, o.id DESC
+            """)
+    List<OrderSummary> findSummariesByStatusAndOwnerBefore(@Param("status") OrderStatus status, @Param("owner") User owner, @Param("date") LocalDate date, @Param("id") long id, Limit limit);
+
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderSummary(o.id, o.number, o.status, o.date, c.name, o.totalQuantity, o.totalAmount)
+            FROM Order o JOIN o.customer c
+            WHERE o.status = :status AND o.owner = :owner AND c.name ILIKE :pattern ESCAPE '!'
+            ORDER BY function('similarity', c.name, :customerName) DESC, c.name, o.date, o.id
+            """)
+    List<OrderSummary> searchSummariesByStatusAndCustomerName(
+            @Param("status") OrderStatus status,
+            @Param("pattern") String pattern,
+            @Param("customerName") String customerName,
+            @Param("owner") User owner,
+            Limit limit
+    );
+
+    @Query(value = """
+            UPDATE "order" SET status = :status
+            WHERE owner_id = :ownerId AND id IN :ids AND status <> :status
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> updateStatusByIds(@Param("ids") Collection<Long> ids, @Param("status") String status, @Param("ownerId") long ownerId);
+
+    @Query(value = """
+            UPDATE "order" SET status = :status
+            WHERE owner_id = :ownerId AND status = :currentStatus AND "date" BETWEEN :startDate AND :endDate
+            RETURNING id
+            """, nativeQuery = true)
+    List<Long> updateStatusByDateRange(
+            @Param("currentStatus") String currentStatus,
+            @Param("startDate") LocalDate startDate,
+            @Param("endDate") LocalDate endDate,
+            @Param("status") String status,
+            @Param("ownerId") long ownerId
+    );
+
+    @Transactional
+    @Query(value = "SELECT reserve_order_numbers(:ownerId, :count)", nativeQuery = true)
+    int reserveOrderNumbers(@Param("ownerId") long ownerId, @Param("count") int count);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "1000"))
+    @Query("""
+            SELECT new com.epsum.epsumstock.order.OrderExportLine(o.number, o.status, o.date, c.name, p.name, oi.quantity, oi.price)
+            FROM Order o JOIN o.customer c JOIN o.items oi JOIN oi.product p
+            WHERE o.owner = :owner
+            ORDER BY o.date, o.id, oi.index
+            """)
+    Stream<OrderExportLine> streamExportLinesByOwner(@Param("owner") User owner);
 
     @Query("SELECT o FROM Order o LEFT JOIN FETCH o.items")
     List<Order> findAllWithItems();
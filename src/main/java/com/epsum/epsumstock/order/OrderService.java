@@ -1,59 +1,117 @@
 package com.epsum.epsumstock.order;
 
+import jakarta.persistence.EntityManager;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.epsum.epsumstock.customer.Customer;
 import com.epsum.epsumstock.customer.CustomerRepository;
+import com.epsum.epsumstock.dashboard.DashboardCache;
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
+import com.epsum.epsumstock.product.Product;
 import com.epsum.epsumstock.product.ProductRepository;
 import com.epsum.epsumstock.user.User;
 import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.Search;
 
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
 @Service
 public class OrderService {
 
     private static final Logger logger = LoggerFactory.getLogger(OrderService.class);
+    private static final int PAGE_SIZE = 8;
+    private static final int ITEMS_PAGE_SIZE = 100;
 
     private final OrderRepository orderRepository;
-    private final ProductRepository productRepository;
     private final CustomerRepository customerRepository;
+    private final ProductRepository productRepository;
+    private final StockReservationService stockReservationService;
+    private final OrderNumberAllocator orderNumberAllocator;
+    private final OrderSubmissionRepository orderSubmissionRepository;
     private final OrderDocumentGenerator orderDocumentGenerator;
+    private final OutboxPublisher outboxPublisher;
+    private final DashboardCache dashboardCache;
+    private final ApplicationEventPublisher eventPublisher;
+    private final TransactionTemplate transactionTemplate;
+    private final EntityManager entityManager;
 
-    public OrderService(OrderRepository orderRepository, ProductRepository productRepository, CustomerRepository customerRepository, OrderDocumentGenerator orderDocumentGenerator) {
+    public OrderService(OrderRepository orderRepository, CustomerRepository customerRepository, ProductRepository productRepository, StockReservationService stockReservationService, OrderNumberAllocator orderNumberAllocator, OrderSubmissionRepository orderSubmissionRepository, OrderDocumentGenerator orderDocumentGenerator, OutboxPublisher outboxPublisher, DashboardCache dashboardCache, ApplicationEventPublisher eventPublisher, TransactionTemplate transactionTemplate, EntityManager entityManager) {
         this.orderRepository = orderRepository;
-        this.productRepository = productRepository;
         this.customerRepository = customerRepository;
+        this.productRepository = productRepository;
+        this.stockReservationService = stockReservationService;
+        this.orderNumberAllocator = orderNumberAllocator;
+        this.orderSubmissionRepository = orderSubmissionRepository;
         this.orderDocumentGenerator = orderDocumentGenerator;
+        this.outboxPublisher = outboxPublisher;
+        this.dashboardCache = dashboardCache;
+        this.eventPublisher = eventPublisher;
+        this.transactionTemplate = transactionTemplate;
+        this.entityManager = entityManager;
     }
 
-    @Transactional
     public void createOrder(Order order, User owner) {
-        checkCustomer(order.getCustomer(), owner);
-        checkProductAvailabilityForNewItems(order.getItems(), owner);
-        updateProductQuantities(order.getItems(), "decrease", owner);
-        order.setOwner(owner);
-        orderRepository.save(order);
-        logger.info("Order created for customer {} of user {}", order.getCustomer().getName(), owner.getEmail());
+        order.setNumber(orderNumberAllocator.nextNumber(owner));
+        transactionTemplate.executeWithoutResult(status -> insertOrder(order, owner));
+    }
+
+    public long createOrder(Order order, String submissionToken, User owner) {
+        order.setNumber(orderNumberAllocator.nextNumber(owner));
+        return transactionTemplate.execute(status -> {
+            if (alreadySubmitted(submissionToken, null, owner)) {
+                return orderSubmissionRepository.findOrderId(submissionToken, owner.getId())
+                        .orElseThrow(OrderNotFoundException::new);
+            }
+            insertOrder(order, owner);
+            if (submissionToken != null && !submissionToken.isBlank()) {
+                orderSubmissionRepository.updateOrderId(submissionToken, owner.getId(), order.getId());
+            }
+            return order.getId();
+        });
     }
 
     @Transactional(readOnly = true)
-    public Page<Order> listOrders(OrderStatus status, int page, User owner) {
+    public OrderSlice listOrders(OrderStatus status, OrderCursor after, OrderCursor before, User owner) {
         logger.info("Listing {} orders paginated for user {}", status, owner.getEmail());
-        return orderRepository.findAllByStatusAndOwner(status, owner, PageRequest.of(page - 1, 8, Sort.by("date")));
+        var limit = Limit.of(PAGE_SIZE + 1);
+        if (before != null) {
+            var orders = orderRepository.findSummariesByStatusAndOwnerBefore(status, owner, before.date(), before.id(), limit);
+            var hasPrevious = orders.size() > PAGE_SIZE;
+            var page = orders.subList(0, Math.min(orders.size(), PAGE_SIZE)).reversed();
+            return slice(page, hasPrevious, true);
+        }
+        var orders = after != null
+                ? orderRepository.findSummariesByStatusAndOwnerAfter(status, owner, after.date(), after.id(), limit)
+                : orderRepository.findSummariesByStatusAndOwner(status, owner, limit);
+        var hasNext = orders.size() > PAGE_SIZE;
+        return slice(orders.subList(0, Math.min(orders.size(), PAGE_SIZE)), after != null, hasNext);
     }
 
     @Transactional(readOnly = true)
-    public List<Order> findOrders(OrderStatus status, String customerName, User owner) {
+    public List<OrderSummary> findOrders(OrderStatus status, String customerName, User owner) {
         logger.info("Finding {} orders containing customer name {} for user {}", status, customerName, owner.getEmail());
-        return orderRepository.findAllByStatusAndCustomerNameContainingIgnoreCaseAndOwner(status, customerName, owner);
+        return orderRepository.searchSummariesByStatusAndCustomerName(status, Search.containing(customerName), customerName, owner, Search.LIMIT);
     }
 
     @Transactional(readOnly = true)
@@ -64,101 +122,248 @@ public class OrderService {
     }
 
     @Transactional(readOnly = true)
-    public Document printOrder(long id, User owner) {
-        var order = orderRepository.findByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
+    public Page<OrderItem> findOrderItems(long id, int page, User owner) {
+        logger.info("Finding items page {} of order with id {} for user {}", page, id, owner.getEmail());
+        return orderRepository.findItemsByOrderIdAndOwner(id, owner, PageRequest.of(page - 1, ITEMS_PAGE_SIZE));
+    }
+
+    @Transactional(readOnly = true)
+    public CompletableFuture<Document> printOrder(long id, User owner) {
+        var version = orderRepository.findDocumentVersionByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
         logger.info("Printing order with id {} for user {}", id, owner.getEmail());
-        return orderDocumentGenerator.generateOrderDocument(order);
+        return orderDocumentGenerator.submitOrderDocument(version, () -> orderRepository.findByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new), LocaleContextHolder.getLocale());
     }
 
     @Transactional
     public void updateOrder(long id, Order updatedOrder, User owner) {
-        var order = orderRepository.findByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
+        var order = orderRepository.findForUpdateByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
         checkCustomer(updatedOrder.getCustomer(), owner);
-        updateProductQuantitiesForExistingItems(order, updatedOrder, owner);
-        decreaseProductQuantitiesForNewItems(order, updatedOrder, owner);
-        resetProductQuantitiesForRemovedItems(order, updatedOrder, owner);
-        updateOrderDetails(order, updatedOrder);
+        if (!sameItems(order.getItems(), updatedOrder.getItems())) {
+            resolveProducts(updatedOrder.getItems(), owner);
+            stockReservationService.reserve(quantityChanges(order.getItems(), updatedOrder.getItems()), order.getId(), owner);
+            order.setItems(updatedOrder.getItems());
+            order.calculateTotals();
+        }
+        var paid = order.getStatus() != OrderStatus.PAID && updatedOrder.getStatus() == OrderStatus.PAID;
+        order.setStatus(updatedOrder.getStatus());
+        order.setCustomer(updatedOrder.getCustomer());
         orderRepository.save(order);
+        outboxPublisher.publish(OutboxEventType.ORDER_UPDATED, order.getId(), owner, orderPayload(order));
+        orderDocumentGenerator.evictOrderDocuments(List.of(order.getId()));
+        dashboardCache.invalidateAfterCommit(owner);
+        if (paid) {
+            publishPaidOrders(List.of(order.getId()), owner);
+        }
         logger.info("Order with id {} of user {} updated", order.getId(), owner.getEmail());
     }
 
+    @Transactional
+    public void updateOrder(long id, Order updatedOrder, String submissionToken, User owner) {
+        if (alreadySubmitted(submissionToken, id, owner)) {
+            return;
+        }
+        updateOrder(id, updatedOrder, owner);
+    }
+
+    @Transactional
+    public void updateOrderItems(long id, Order updatedOrder, List<Long> pageProductIds, User owner) {
+        var order = orderRepository.findForUpdateByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
+        checkCustomer(updatedOrder.getCustomer(), owner);
+        var items = updatedOrder.getItems();
+        resolveProducts(items, owner);
+        var pageIds = new HashSet<>(pageProductIds);
+        var productIds = new HashSet<>(pageIds);
+        items.forEach(item -> productIds.add(item.getProduct().getId()));
+        var existingItems = orderRepository.findItemsByOrderIdAndProductIdIn(id, productIds).stream()
+                .collect(Collectors.toMap(item -> item.getProduct().getId(), Function.identity()));
+        var changes = new HashMap<Long, Integer>(productIds.size());
+        var amountChange = BigDecimal.ZERO;
+        var addedItems = new ArrayList<OrderItem>();
+        for (var item : items) {
+            var productId = item.getProduct().getId();
+            var existingItem = existingItems.get(productId);
+            if (existingItem == null) {
+                addedItems.add(item);
+                changes.put(productId, item.getQuantity());
+                amountChange = amountChange.add(item.getAmount());
+                continue;
+            }
+            if (!pageIds.remove(productId)) {
+                logger.info("Product with id {} already in another page of order with id {}, throwing exception", productId, id);
+                throw new DuplicatedOrderItemException();
+            }
+            var quantityChange = item.getQuantity() - existingItem.getQuantity();
+            changes.put(productId, quantityChange);
+            amountChange = amountChange.add(existingItem.getPrice().multiply(BigDecimal.valueOf(quantityChange)));
+            existingItem.setQuantity(item.getQuantity());
+        }
+        var removedIds = pageIds.stream().filter(existingItems::containsKey).toList();
+        for (var productId : removedIds) {
+            var removedItem = existingItems.get(productId);
+            changes.put(productId, -removedItem.getQuantity());
+            amountChange = amountChange.subtract(removedItem.getAmount());
+        }
+        stockReservationService.reserve(changes, order.getId(), owner);
+        if (!removedIds.isEmpty()) {
+            orderRepository.deleteItemsByOrderIdAndProductIdIn(id, removedIds);
+        }
+        if (!addedItems.isEmpty()) {
+            orderRepository.insertItems(
+                    id,
+                    addedItems.stream().map(item -> item.getProduct().getId()).toArray(Long[]::new),
+                    addedItems.stream().map(OrderItem::getQuantity).toArray(Integer[]::new),
+                    orderRepository.findLastItemIndexByOrderId(id) + 1
+            );
+        }
+        order.adjustTotals(changes.values().stream().mapToInt(Integer::intValue).sum(), amountChange);
+        var paid = order.getStatus() != OrderStatus.PAID && updatedOrder.getStatus() == OrderStatus.PAID;
+        order.setStatus(updatedOrder.getStatus());
+        order.setCustomer(updatedOrder.getCustomer());
+        orderRepository.save(order);
+        outboxPublisher.publish(OutboxEventType.ORDER_UPDATED, order.getId(), owner, orderPayload(order));
+        orderDocumentGenerator.evictOrderDocuments(List.of(order.getId()));
+        dashboardCache.invalidateAfterCommit(owner);
+        if (paid) {
+            publishPaidOrders(List.of(order.getId()), owner);
+        }
+        logger.info("{} items of order with id {} of user {} updated", changes.size(), order.getId(), owner.getEmail());
+    }
+
+    @Transactional
+    public void updateOrderItems(long id, Order updatedOrder, List<Long> pageProductIds, String submissionToken, User owner) {
+        if (alreadySubmitted(submissionToken, id, owner)) {
+            return;
+        }
+        updateOrderItems(id, updatedOrder, pageProductIds, owner);
+    }
+
+    @Transactional
+    public int updateOrderStatus(List<Long> ids, OrderStatus status, User owner) {
+        if (ids.isEmpty()) {
+            return 0;
+        }
+        entityManager.flush();
+        var updatedIds = orderRepository.updateStatusByIds(ids, status.name(), owner.getId());
+        entityManager.clear();
+        publishStatusChanges(updatedIds, status, owner);
+        logger.info("Status of {} orders of user {} updated to {}", updatedIds.size(), owner.getEmail(), status);
+        return updatedIds.size();
+    }
+
+    @Transactional
+    public int updateOrderStatus(OrderStatus currentStatus, LocalDate startDate, LocalDate endDate, OrderStatus status, User owner) {
+        entityManager.flush();
+        var updatedIds = orderRepository.updateStatusByDateRange(currentStatus.name(), startDate, endDate, status.name(), owner.getId());
+        entityManager.clear();
+        publishStatusChanges(updatedIds, status, owner);
+        logger.info("Status of {} {} orders of user {} from {} to {} updated to {}", updatedIds.size(), currentStatus, owner.getEmail(), startDate, endDate, status);
+        return updatedIds.size();
+    }
+
     @Transactional
     public void deleteOrder(long id, User owner) {
         var order = orderRepository.findByIdAndOwner(id, owner).orElseThrow(OrderNotFoundException::new);
         if (order.getStatus() == OrderStatus.UNPAID) {
             logger.info("Order status is UNPAID, reset associated product quantities");
-            updateProductQuantities(order.getItems(), "increase", owner);
+            stockReservationService.release(order.getItems(), order.getId(), owner);
         }
         orderRepository.delete(order);
+        outboxPublisher.publish(OutboxEventType.ORDER_DELETED, order.getId(), owner, orderPayload(order));
+        orderDocumentGenerator.evictOrderDocuments(List.of(order.getId()));
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Order with id {} of user {} deleted", id, owner.getEmail());
     }
 
-    private void checkCustomer(Customer customer, User owner) {
-        if (!customerRepository.existsByIdAndOwner(customer.getId(), owner)) {
-            logger.info("Customer with id {} not found, throwing exception", customer.getId());
-            throw new InvalidCustomerException();
+    private OrderSlice slice(List<OrderSummary> orders, boolean hasPrevious, boolean hasNext) {
+        if (orders.isEmpty()) {
+            return new OrderSlice(orders, null, null);
         }
+        return new OrderSlice(
+                orders,
+                hasPrevious ? OrderCursor.of(orders.getFirst()) : null,
+                hasNext ? OrderCursor.of(orders.getLast()) : null
+        );
     }
 
-    private void checkProductAvailabilityForNewItems(List<OrderItem> items, User owner) {
-        for (var item : items) {
-            var product = productRepository.findByIdAndOwner(item.getProduct().getId(), owner)
-                    .orElseThrow(InvalidProductException::new);
-            if (item.getQuantity() > product.getQuantity()) {
-                logger.info("Order items contains products with insufficient stock, throwing exception");
-                throw new ProductWithInsufficientStockException();
-            }
+    private Map<String, Object> orderPayload(Order order) {
+        var payload = new LinkedHashMap<String, Object>();
+        payload.put("number", order.getNumber());
+        payload.put("status", order.getStatus());
+        payload.put("customerId", order.getCustomer().getId());
+        payload.put("quantity", order.getQuantity());
+        payload.put("amount", order.getAmount());
+        return payload;
+    }
+
+    private void publishStatusChanges(List<Long> ids, OrderStatus status, User owner) {
+        ids.forEach(id -> outboxPublisher.publish(OutboxEventType.ORDER_UPDATED, id, owner, Map.of("status", status)));
+        orderDocumentGenerator.evictOrderDocuments(ids);
+        dashboardCache.invalidateAfterCommit(owner);
+        if (status == OrderStatus.PAID && !ids.isEmpty()) {
+            publishPaidOrders(ids, owner);
         }
     }
 
-    private void updateProductQuantities(List<OrderItem> items, String operation, User owner) {
-        for (var item : items) {
-            var product = productRepository.findByIdAndOwner(item.getProduct().getId(), owner).orElseThrow();
-            switch (operation) {
-                case "increase" -> product.increaseQuantity(item.getQuantity());
-                case "decrease" -> product.decreaseQuantity(item.getQuantity());
-                default -> throw new IllegalArgumentException("No case found for operation " + operation);
-            }
-            logger.info("Updating product {}, new quantity is {}", product.getName(), product.getQuantity());
+    private void publishPaidOrders(List<Long> ids, User owner) {
+        eventPublisher.publishEvent(new OrderPaidEvent(ids, owner, LocaleContextHolder.getLocale()));
+    }
+
+    private boolean alreadySubmitted(String submissionToken, Long orderId, User owner) {
+        if (submissionToken == null || submissionToken.isBlank()) {
+            return false;
+        }
+        if (orderSubmissionRepository.insertIfAbsent(submissionToken, owner.getId(), orderId) == 0) {
+            logger.info("Order submission {} of user {} already processed, skipping", submissionToken, owner.getEmail());
+            return true;
         }
+        return false;
     }
 
-    private void updateProductQuantitiesForExistingItems(Order order, Order updatedOrder, User owner) {
-        var updatedItems = updatedOrder.getItems().stream().filter(order.getItems()::contains).toList();
-        var items = order.getItems().stream().filter(updatedItems::contains).toList();
-        checkProductAvailabilityForExistingItems(items, updatedItems, owner);
-        updateProductQuantities(items, "increase", owner);
-        updateProductQuantities(updatedItems, "decrease", owner);
+    private void insertOrder(Order order, User owner) {
+        checkCustomer(order.getCustomer(), owner);
+        resolveProducts(order.getItems(), owner);
+        order.setOwner(owner);
+        orderRepository.save(order);
+        stockReservationService.reserve(order.getItems(), order.getId(), owner);
+        outboxPublisher.publish(OutboxEventType.ORDER_CREATED, order.getId(), owner, orderPayload(order));
+        dashboardCache.invalidateAfterCommit(owner);
+        logger.info("Order created for customer {} of user {}", order.getCustomer().getName(), owner.getEmail());
     }
 
-    private void checkProductAvailabilityForExistingItems(List<OrderItem> items, List<OrderItem> updatedItems, User owner) {
-        IntStream.range(0, updatedItems.size()).forEach(i -> {
-            var product = productRepository.findByIdAndOwner(items.get(i).getProduct().getId(), owner)
-                    .orElseThrow(InvalidProductException::new);
-            var quantity = (int) items.get(i).getQuantity();
-            var updatedQuantity = (int) updatedItems.get(i).getQuantity();
-            if (updatedQuantity - quantity > product.getQuantity()) {
-                logger.info("Order items contains products with insufficient stock, throwing exception");
-                throw new ProductWithInsufficientStockException();
-            }
-        });
+    private void checkCustomer(Customer customer, User owner) {
+        if (!customerRepository.existsByIdAndOwner(customer.getId(), owner)) {
+            logger.info("Customer with id {} not found, throwing exception", customer.getId());
+            throw new InvalidCustomerException();
+        }
     }
 
-    private void decreaseProductQuantitiesForNewItems(Order order, Order updatedOrder, User owner) {
-        var newItems = updatedOrder.getItems().stream().filter(item -> !order.getItems().contains(item)).toList();
-        checkProductAvailabilityForNewItems(newItems, owner);
-        updateProductQuantities(newItems, "decrease", owner);
+    private void resolveProducts(List<OrderItem> items, User owner) {
+        var ids = items.stream().map(item -> item.getProduct().getId()).toList();
+        var products = productRepository.findAllByIdInAndOwner(ids, owner).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        items.forEach(item -> {
+            var product = products.get(item.getProduct().getId());
+            if (product == null) {
+                logger.info("Product with id {} of user {} not found, throwing exception", item.getProduct().getId(), owner.getEmail());
+                throw new InvalidProductException();
+            }
+            item.setProduct(product);
+            item.setPrice(product.getPrice());
+        });
     }
 
-    private void resetProductQuantitiesForRemovedItems(Order order, Order updatedOrder, User owner) {
-        var removedItems = order.getItems().stream().filter(item -> !updatedOrder.getItems().contains(item)).toList();
-        updateProductQuantities(removedItems, "increase", owner);
+    private boolean sameItems(List<OrderItem> items, List<OrderItem> updatedItems) {
+        return items.size() == updatedItems.size() && IntStream.range(0, items.size()).allMatch(i ->
+                items.get(i).getProduct().getId().equals(updatedItems.get(i).getProduct().getId())
+                        && items.get(i).getQuantity().equals(updatedItems.get(i).getQuantity())
+        );
     }
 
-    private void updateOrderDetails(Order order, Order updatedOrder) {
-        order.setStatus(updatedOrder.getStatus());
-        order.setCustomer(updatedOrder.getCustomer());
-        order.setItems(updatedOrder.getItems());
+    private Map<Long, Integer> quantityChanges(List<OrderItem> items, List<OrderItem> updatedItems) {
+        var changes = new HashMap<Long, Integer>(items.size() + updatedItems.size());
+        items.forEach(item -> changes.merge(item.getProduct().getId(), -item.getQuantity(), Integer::sum));
+        updatedItems.forEach(item -> changes.merge(item.getProduct().getId(), item.getQuantity(), Integer::sum));
+        return changes;
     }
 
 }
@@ -0,0 +1,29 @@
+package com.epsum.epsumstock.order;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import com.epsum.epsumstock.util.DocumentCache;
+
+@Service
+public class OrderServiceScheduler {
+
+    private final OrderSubmissionRepository orderSubmissionRepository;
+    private final DocumentCache documentCache;
+
+    public OrderServiceScheduler(OrderSubmissionRepository orderSubmissionRepository, DocumentCache documentCache) {
+        this.orderSubmissionRepository = orderSubmissionRepository;
+        this.documentCache = documentCache;
+    }
+
+    @Scheduled(cron = "@hourly")
+    private void deleteExpiredOrderSubmissions() {
+        orderSubmissionRepository.deleteExpired();
+    }
+
+    @Scheduled(cron = "@daily")
+    private void deleteExpiredOrderDocuments() {
+        documentCache.deleteExpired();
+    }
+
+}
@@ -0,0 +1,7 @@
+package com.epsum.epsumstock.order;
+
+import java.util.List;
+
+public record OrderSlice(List<OrderSummary> orders, OrderCursor previous, OrderCursor next) {
+
+}
@@ -0,0 +1,56 @@
+package com.epsum.epsumstock.order;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.Instant;
+
+@Entity
+public class OrderSubmission {
+
+    @EmbeddedId
+    private OrderSubmissionId id;
+
+    @NotNull
+    @MapsId("ownerId")
+    @ManyToOne(optional = false)
+    private User owner;
+
+    @ManyToOne
+    private Order order;
+
+    @CreationTimestamp
+    @Column(nullable = false)
+    private Instant submissionTime;
+
+    public OrderSubmission() {}
+
+    public OrderSubmission(String token, User owner) {
+        this.id = new OrderSubmissionId(owner.getId(), token);
+        this.owner = owner;
+    }
+
+    public OrderSubmissionId getId() {
+        return id;
+    }
+
+    public String getToken() {
+        return id.getToken();
+    }
+
+    public User getOwner() {
+        return owner;
+    }
+
+    public Order getOrder() {
+        return order;
+    }
+
+    public Instant getSubmissionTime() {
+        return submissionTime;
+    }
+
+}
@@ -0,0 +1,43 @@
+package com.epsum.epsumstock.order;
+
+import jakarta.persistence.Embeddable;
+
+import java.io.Serializable;
+import java.util.Objects;
+
+@Embeddable
+public class OrderSubmissionId implements Serializable {
+
+    private Long ownerId;
+
+    private String token;
+
+    public OrderSubmissionId() {}
+
+    public OrderSubmissionId(Long ownerId, String token) {
+        this.ownerId = ownerId;
+        this.token = token;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    public String getToken() {
+        return token;
+    }
+
+    @Override
+    public boolean equals(Object other) {
+        if (this == other) return true;
+        if (other == null || this.getClass() != other.getClass()) return false;
+        var that = (OrderSubmissionId) other;
+        return Objects.equals(this.ownerId, that.ownerId) && Objects.equals(this.token, that.token);
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(ownerId, token);
+    }
+
+}
@@ -0,0 +1,39 @@
+package com.epsum.epsumstock.order;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
+
+import java.util.Optional;
+
+public interface OrderSubmissionRepository extends JpaRepository<OrderSubmission, OrderSubmissionId> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO order_submission (owner_id, token, order_id)
+            VALUES (:ownerId, :token, :orderId)
+            ON CONFLICT (owner_id, token) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("token") String token, @Param("ownerId") long ownerId, @Param("orderId") Long orderId);
+
+    @Modifying
+    @Query(value = """
+            UPDATE order_submission
+            SET order_id = :orderId
+            WHERE owner_id = :ownerId AND token = :token
+            """, nativeQuery = true)
+    void updateOrderId(@Param("token") String token, @Param("ownerId") long ownerId, @Param("orderId") long orderId);
+
+    @Query(value = """
+            SELECT os.order_id
+            FROM order_submission os
+            WHERE os.owner_id = :ownerId AND os.token = :token
+            """, nativeQuery = true)
+    Optional<Long> findOrderId(@Param("token") String token, @Param("ownerId") long ownerId);
+
+    @Procedure("delete_expired_order_submissions")
+    void deleteExpired();
+
+}
@@ -0,0 +1,54 @@
+package com.epsum.epsumstock.order;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+public class OrderSummary {
+
+    private final Long id;
+    private final Integer number;
+    private final OrderStatus status;
+    private final LocalDate date;
+    private final String customerName;
+    private final Integer quantity;
+    private final BigDecimal amount;
+
+    public OrderSummary(Long id, Integer number, OrderStatus status, LocalDate date, String customerName, Integer quantity, BigDecimal amount) {
+        this.id = id;
+        this.number = number;
+        this.status = status;
+        this.date = date;
+        this.customerName = customerName;
+        this.quantity = quantity;
+        this.amount = amount;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Integer getNumber() {
+        return number;
+    }
+
+    public OrderStatus getStatus() {
+        return status;
+    }
+
+    public LocalDate getDate() {
+        return date;
+    }
+
+    public String getCustomerName() {
+        return customerName;
+    }
+
+    public Integer getQuantity() {
+        return quantity;
+    }
+
+    public BigDecimal getAmount() {
+        return amount;
+    }
+
+}
@@ -0,0 +1,104 @@
+package com.epsum.epsumstock.order;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
+import com.epsum.epsumstock.product.Product;
+import com.epsum.epsumstock.product.ProductRepository;
+import com.epsum.epsumstock.product.ProductTypeahead;
+import com.epsum.epsumstock.product.StockMovementReason;
+import com.epsum.epsumstock.user.User;
+
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+@Service
+public class StockReservationService {
+
+    private static final Logger logger = LoggerFactory.getLogger(StockReservationService.class);
+
+    private final ProductRepository productRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ProductTypeahead productTypeahead;
+
+    public StockReservationService(ProductRepository productRepository, OutboxPublisher outboxPublisher, ProductTypeahead productTypeahead) {
+        this.productRepository = productRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.productTypeahead = productTypeahead;
+    }
+
+    @Transactional
+    public void reserve(List<OrderItem> items, Long orderId, User owner) {
+        reserve(quantitiesByProductId(items, 1), StockMovementReason.ORDER_CREATED, orderId, owner);
+    }
+
+    @Transactional
+    public void release(List<OrderItem> items, Long orderId, User owner) {
+        reserve(quantitiesByProductId(items, -1), StockMovementReason.ORDER_DELETED, orderId, owner);
+    }
+
+    @Transactional
+    public void reserve(Map<Long, Integer> quantities, Long orderId, User owner) {
+        reserve(quantities, StockMovementReason.ORDER_UPDATED, orderId, owner);
+    }
+
+    private void reserve(Map<Long, Integer> quantities, StockMovementReason reason, Long orderId, User owner) {
+        var reservations = new TreeMap<Long, Integer>();
+        quantities.forEach((productId, quantity) -> {
+            if (quantity != 0) reservations.put(productId, quantity);
+        });
+        if (reservations.isEmpty()) {
+            return;
+        }
+        checkProductAvailability(reservations, owner);
+        var ids = reservations.keySet().toArray(Long[]::new);
+        var updatedProducts = productRepository.reserveQuantities(ids, reservations.values().toArray(Integer[]::new), reason.name(), orderId, owner.getId());
+        if (updatedProducts < reservations.size()) {
+            logger.info("Stock of {} products of user {} changed concurrently, throwing exception", reservations.size() - updatedProducts, owner.getEmail());
+            throw new ProductWithInsufficientStockException();
+        }
+        reservations.forEach((productId, quantity) ->
+                outboxPublisher.publish(OutboxEventType.STOCK_CHANGED, productId, owner, Map.of("quantityChange", -quantity)));
+        productTypeahead.refreshAfterCommit(List.copyOf(reservations.keySet()), owner);
+        logger.info("Reserved stock of {} products for user {}", reservations.size(), owner.getEmail());
+    }
+
+    private void checkProductAvailability(Map<Long, Integer> reservations, User owner) {
+        var ids = reservations.entrySet().stream()
+                .filter(reservation -> reservation.getValue() > 0)
+                .map(Map.Entry::getKey)
+                .toList();
+        if (ids.isEmpty()) {
+            return;
+        }
+        var products = productRepository.findAllByIdInAndOwner(ids, owner).stream()
+                .collect(Collectors.toMap(Product::getId, Function.identity()));
+        ids.forEach(productId -> {
+            var product = products.get(productId);
+            if (product == null) {
+                logger.info("Product with id {} of user {} not found, throwing exception", productId, owner.getEmail());
+                throw new InvalidProductException();
+            }
+            if (reservations.get(productId) > product.getQuantity()) {
+                logger.info("Order items contains products with insufficient stock, throwing exception");
+                throw new ProductWithInsufficientStockException();
+            }
+        });
+    }
+
+    private Map<Long, Integer> quantitiesByProductId(List<OrderItem> items, int sign) {
+        return items.stream().collect(Collectors.toMap(
+                item -> item.getProduct().getId(),
+                item -> sign * item.getQuantity(),
+                Integer::sum
+        ));
+    }
+
+}
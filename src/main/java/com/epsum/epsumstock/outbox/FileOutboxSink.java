@@ -0,0 +1,43 @@
+package com.epsum.epsumstock.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty("outbox.file.path")
+public class FileOutboxSink implements OutboxSink {
+
+    private final ObjectMapper objectMapper;
+    private final Path path;
+
+    public FileOutboxSink(ObjectMapper objectMapper, @Value("${outbox.file.path}") Path path) {
+        this.objectMapper = objectMapper;
+        this.path = path;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        var lines = new StringBuilder();
+        try {
+            for (var event : events) {
+                lines.append(objectMapper.writeValueAsString(event)).append(System.lineSeparator());
+            }
+            Files.writeString(path, lines, StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+}
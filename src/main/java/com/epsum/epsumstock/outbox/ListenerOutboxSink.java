@@ -0,0 +1,22 @@
+package com.epsum.epsumstock.outbox;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+
+@Component
+public class ListenerOutboxSink implements OutboxSink {
+
+    private final ApplicationEventPublisher applicationEventPublisher;
+
+    public ListenerOutboxSink(ApplicationEventPublisher applicationEventPublisher) {
+        this.applicationEventPublisher = applicationEventPublisher;
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        events.forEach(applicationEventPublisher::publishEvent);
+    }
+
+}
@@ -0,0 +1,73 @@
+package com.epsum.epsumstock.outbox;
+
+import com.fasterxml.jackson.annotation.JsonRawValue;
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+import org.hibernate.annotations.CreationTimestamp;
+
+import java.time.Instant;
+
+@Entity
+public class OutboxEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "outbox_event_id_seq")
+    @SequenceGenerator(name = "outbox_event_id_seq", sequenceName = "outbox_event_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private OutboxEventType type;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long aggregateId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Long ownerId;
+
+    @NotNull
+    @Column(nullable = false)
+    private String payload;
+
+    @CreationTimestamp
+    @Column(nullable = false)
+    private Instant creationTime;
+
+    public OutboxEvent() {}
+
+    public OutboxEvent(OutboxEventType type, Long aggregateId, Long ownerId, String payload) {
+        this.type = type;
+        this.aggregateId = aggregateId;
+        this.ownerId = ownerId;
+        this.payload = payload;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public OutboxEventType getType() {
+        return type;
+    }
+
+    public Long getAggregateId() {
+        return aggregateId;
+    }
+
+    public Long getOwnerId() {
+        return ownerId;
+    }
+
+    @JsonRawValue
+    public String getPayload() {
+        return payload;
+    }
+
+    public Instant getCreationTime() {
+        return creationTime;
+    }
+
+}
@@ -0,0 +1,29 @@
+package com.epsum.epsumstock.outbox;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent, Long> {
+
+    @Transactional
+    @Query(value = """
+            WITH claimed AS (
+                UPDATE outbox_event SET claim_time = LOCALTIMESTAMP
+                WHERE id IN (
+                    SELECT id FROM outbox_event
+                    WHERE claim_time IS NULL OR claim_time < LOCALTIMESTAMP - make_interval(secs => :claimTimeout)
+                    ORDER BY id
+                    LIMIT :limit
+                    FOR UPDATE SKIP LOCKED
+                )
+                RETURNING *
+            )
+            SELECT * FROM claimed ORDER BY id
+            """, nativeQuery = true)
+    List<OutboxEvent> claimNextEvents(@Param("limit") int limit, @Param("claimTimeout") long claimTimeout);
+
+}
@@ -0,0 +1,10 @@
+package com.epsum.epsumstock.outbox;
+
+public enum OutboxEventType {
+
+    ORDER_CREATED,
+    ORDER_UPDATED,
+    ORDER_DELETED,
+    STOCK_CHANGED
+
+}
@@ -0,0 +1,33 @@
+package com.epsum.epsumstock.outbox;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import com.epsum.epsumstock.user.User;
+
+import java.util.Map;
+
+@Component
+public class OutboxPublisher {
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final ObjectMapper objectMapper;
+
+    public OutboxPublisher(OutboxEventRepository outboxEventRepository, ObjectMapper objectMapper) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.objectMapper = objectMapper;
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void publish(OutboxEventType type, Long aggregateId, User owner, Map<String, Object> payload) {
+        try {
+            outboxEventRepository.save(new OutboxEvent(type, aggregateId, owner.getId(), objectMapper.writeValueAsString(payload)));
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException(e);
+        }
+    }
+
+}
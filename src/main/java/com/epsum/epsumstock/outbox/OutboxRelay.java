@@ -0,0 +1,43 @@
+package com.epsum.epsumstock.outbox;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.util.List;
+
+@Service
+public class OutboxRelay {
+
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+    static final int BATCH_SIZE = 100;
+
+    private final OutboxEventRepository outboxEventRepository;
+    private final List<OutboxSink> sinks;
+    private final Duration claimTimeout;
+
+    public OutboxRelay(
+            OutboxEventRepository outboxEventRepository,
+            List<OutboxSink> sinks,
+            @Value("${outbox.claim-timeout:5m}") Duration claimTimeout
+    ) {
+        this.outboxEventRepository = outboxEventRepository;
+        this.sinks = sinks;
+        this.claimTimeout = claimTimeout;
+    }
+
+    @Scheduled(fixedDelay = 1000)
+    public void relay() {
+        var events = outboxEventRepository.claimNextEvents(BATCH_SIZE, claimTimeout.toSeconds());
+        if (events.isEmpty()) {
+            return;
+        }
+        sinks.forEach(sink -> sink.deliver(events));
+        outboxEventRepository.deleteAllInBatch(events);
+        logger.info("Relayed {} outbox events to {} sinks", events.size(), sinks.size());
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.epsum.epsumstock.outbox;
+
+import java.util.List;
+
+public interface OutboxSink {
+
+    void deliver(List<OutboxEvent> events);
+
+}
@@ -0,0 +1,44 @@
+package com.epsum.epsumstock.outbox;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.web.client.ClientHttpRequestFactories;
+import org.springframework.boot.web.client.ClientHttpRequestFactorySettings;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClient;
+
+import java.time.Duration;
+import java.util.List;
+
+@Component
+@ConditionalOnProperty("outbox.webhook.url")
+public class WebhookOutboxSink implements OutboxSink {
+
+    private final RestClient restClient;
+
+    public WebhookOutboxSink(
+            RestClient.Builder restClientBuilder,
+            @Value("${outbox.webhook.url}") String url,
+            @Value("${outbox.webhook.connect-timeout:5s}") Duration connectTimeout,
+            @Value("${outbox.webhook.read-timeout:30s}") Duration readTimeout
+    ) {
+        var settings = ClientHttpRequestFactorySettings.DEFAULTS
+                .withConnectTimeout(connectTimeout)
+                .withReadTimeout(readTimeout);
+        this.restClient = restClientBuilder
+                .baseUrl(url)
+                .requestFactory(ClientHttpRequestFactories.get(settings))
+                .build();
+    }
+
+    @Override
+    public void deliver(List<OutboxEvent> events) {
+        restClient.post()
+                .contentType(MediaType.APPLICATION_JSON)
+                .body(events)
+                .retrieve()
+                .toBodilessEntity();
+    }
+
+}
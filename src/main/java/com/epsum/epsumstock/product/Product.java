@@ -12,13 +12,15 @@ import com.epsum.epsumstock.category.Category;
 import com.epsum.epsumstock.user.User;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 
 @Entity
 @Table(uniqueConstraints = @UniqueConstraint(columnNames = { "name", "owner_id" }))
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "product_id_seq")
+    @SequenceGenerator(name = "product_id_seq", sequenceName = "product_id_seq", allocationSize = 50)
     private Long id;
 
     @NotBlank
@@ -39,6 +41,9 @@ public class Product {
     @Column(nullable = false)
     private BigDecimal price = BigDecimal.ZERO;
 
+    @Column(insertable = false, updatable = false)
+    private Instant nameModificationTime;
+
     @NotNull
     @ManyToOne(optional = false)
     private User owner;
@@ -102,12 +107,8 @@ public class Product {
         this.price = price;
     }
 
-    public void increaseQuantity(int amount) {
-        this.quantity += amount;
-    }
-
-    public void decreaseQuantity(int amount) {
-        this.quantity -= amount;
+    public Instant getNameModificationTime() {
+        return nameModificationTime;
     }
 
     public User getOwner() {
@@ -10,16 +10,20 @@ import org.springframework.web.servlet.mvc.support.RedirectAttributes;
 import com.epsum.epsumstock.category.CategoryService;
 import com.epsum.epsumstock.user.User;
 
+import java.util.List;
+
 @Controller
 @RequestMapping("/products")
 public class ProductController {
 
     private final ProductService productService;
     private final CategoryService categoryService;
+    private final ProductTypeahead productTypeahead;
 
-    public ProductController(ProductService productService, CategoryService categoryService) {
+    public ProductController(ProductService productService, CategoryService categoryService, ProductTypeahead productTypeahead) {
         this.productService = productService;
         this.categoryService = categoryService;
+        this.productTypeahead = productTypeahead;
     }
 
     @GetMapping("/create")
@@ -60,6 +64,12 @@ public class ProductController {
         return "product/product-table";
     }
 
+    @GetMapping("/suggestions")
+    @ResponseBody
+    public List<ProductSuggestion> suggestProducts(@AuthenticationPrincipal User user, @RequestParam(name = "query", defaultValue = "") String query) {
+        return productTypeahead.suggest(query, user);
+    }
+
     @GetMapping("/update/{id}")
     public String retrieveUpdateProductPage(@AuthenticationPrincipal User user, @PathVariable("id") long id, Model model) {
         var product = productService.findProduct(id, user);
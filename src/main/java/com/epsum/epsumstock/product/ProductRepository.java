@@ -1,12 +1,19 @@
 package com.epsum.epsumstock.product;
 
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import com.epsum.epsumstock.user.User;
 
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 
@@ -18,12 +25,53 @@ public interface ProductRepository extends JpaRepository<Product, Long> {
 
     Optional<Product> findByIdAndOwner(long id, User owner);
 
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<Product> findForUpdateByIdAndOwner(long id, User owner);
+
     Optional<Product> findByNameAndOwner(String name, User owner);
 
     Page<Product> findAllByOwner(User owner, Pageable pageable);
 
     List<Product> findAllByOwner(User owner, Sort sort);
 
-    List<Product> findAllByNameContainingIgnoreCaseAndOwner(String name, User owner);
+    @Query("""
+            SELECT p FROM Product p LEFT JOIN FETCH p.category
+            WHERE p.owner = :owner AND p.name ILIKE :pattern ESCAPE '!'
+            ORDER BY function('similarity', p.name, :name) DESC, p.name
+            """)
+    List<Product> searchByName(@Param("pattern") String pattern, @Param("name") String name, @Param("owner") User owner, Limit limit);
+
+    List<Product> findAllByIdInAndOwner(Collection<Long> ids, User owner);
+
+    @Query("SELECT new com.epsum.epsumstock.product.ProductSuggestion(p.id, p.name, p.price, p.quantity) FROM Product p WHERE p.owner = :owner")
+    List<ProductSuggestion> findSuggestionsByOwner(@Param("owner") User owner);
+
+    @Query("SELECT new com.epsum.epsumstock.product.ProductSuggestion(p.id, p.name, p.price, p.quantity) FROM Product p WHERE p.id IN :ids AND p.owner = :owner")
+    List<ProductSuggestion> findSuggestionsByIdInAndOwner(@Param("ids") Collection<Long> ids, @Param("owner") User owner);
+
+    @Modifying
+    @Query(value = """
+            WITH locked AS (
+                SELECT id FROM product
+                WHERE id = ANY(:ids) AND owner_id = :ownerId
+                ORDER BY id
+                FOR UPDATE
+            ), updated AS (
+                UPDATE product p
+                SET quantity = p.quantity - d.quantity
+                FROM unnest(:ids, :quantities) AS d(id, quantity), locked l
+                WHERE p.id = d.id AND p.id = l.id AND p.quantity >= d.quantity
+                RETURNING p.id, d.quantity
+            )
+            INSERT INTO stock_movement (product_id, reason, order_id, quantity_change)
+            SELECT u.id, :reason, :orderId, -u.quantity FROM updated u
+            """, nativeQuery = true)
+    int reserveQuantities(
+            @Param("ids") Long[] ids,
+            @Param("quantities") Integer[] quantities,
+            @Param("reason") String reason,
+            @Param("orderId") Long orderId,
+            @Param("ownerId") long ownerId
+    );
 
 }
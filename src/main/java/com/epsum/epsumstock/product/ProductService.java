@@ -9,10 +9,16 @@ import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import com.epsum.epsumstock.category.CategoryRepository;
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.order.OrderRepository;
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 
 @Service
 public class ProductService {
@@ -22,11 +28,19 @@ public class ProductService {
     private final ProductRepository productRepository;
     private final CategoryRepository categoryRepository;
     private final OrderRepository orderRepository;
+    private final StockMovementRepository stockMovementRepository;
+    private final OutboxPublisher outboxPublisher;
+    private final ProductTypeahead productTypeahead;
+    private final DashboardCache dashboardCache;
 
-    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, OrderRepository orderRepository) {
+    public ProductService(ProductRepository productRepository, CategoryRepository categoryRepository, OrderRepository orderRepository, StockMovementRepository stockMovementRepository, OutboxPublisher outboxPublisher, ProductTypeahead productTypeahead, DashboardCache dashboardCache) {
         this.productRepository = productRepository;
         this.categoryRepository = categoryRepository;
         this.orderRepository = orderRepository;
+        this.stockMovementRepository = stockMovementRepository;
+        this.outboxPublisher = outboxPublisher;
+        this.productTypeahead = productTypeahead;
+        this.dashboardCache = dashboardCache;
     }
 
     @Transactional
@@ -42,6 +56,9 @@ public class ProductService {
         }
         product.setOwner(owner);
         productRepository.save(product);
+        recordStockMovement(product, StockMovementReason.PRODUCT_CREATED, product.getQuantity(), owner);
+        productTypeahead.refreshAfterCommit(product.getId(), owner);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Product {} created for user {}", product.getName(), owner.getEmail());
     }
 
@@ -60,7 +77,7 @@ public class ProductService {
     @Transactional(readOnly = true)
     public List<Product> findProducts(String name, User owner) {
         logger.info("Finding products containing name {} for user {}", name, owner.getEmail());
-        return productRepository.findAllByNameContainingIgnoreCaseAndOwner(name, owner);
+        return productRepository.searchByName(Search.containing(name), name, owner, Search.LIMIT);
     }
 
     @Transactional(readOnly = true)
@@ -70,9 +87,19 @@ public class ProductService {
                 .orElseThrow(ProductNotFoundException::new);
     }
 
+    @Transactional(readOnly = true)
+    public int findProductStock(long id, LocalDate date, User owner) {
+        if (!productRepository.existsByIdAndOwner(id, owner)) {
+            logger.info("Product with id {} of user {} not found, throwing exception", id, owner.getEmail());
+            throw new ProductNotFoundException();
+        }
+        logger.info("Finding stock of product with id {} on {} for user {}", id, date, owner.getEmail());
+        return stockMovementRepository.findStockAt(id, date.plusDays(1).atStartOfDay());
+    }
+
     @Transactional
     public void updateProduct(long id, Product updatedProduct, User owner) {
-        var product = productRepository.findByIdAndOwner(id, owner)
+        var product = productRepository.findForUpdateByIdAndOwner(id, owner)
                 .orElseThrow(ProductNotFoundException::new);
         if (!product.getName().equals(updatedProduct.getName())
             && productRepository.existsByNameAndOwner(updatedProduct.getName(), owner)) {
@@ -84,11 +111,14 @@ public class ProductService {
             logger.info("New product category with id {} of user {} not found, throwing exception", updatedProduct.getCategory().getId(), owner.getEmail());
             throw new InvalidCategoryException();
         }
+        var quantityChange = updatedProduct.getQuantity() - product.getQuantity();
         product.setName(updatedProduct.getName());
         product.setCategory(updatedProduct.getCategory());
         product.setQuantity(updatedProduct.getQuantity());
         product.setPrice(updatedProduct.getPrice());
         productRepository.save(product);
+        recordStockMovement(product, StockMovementReason.PRODUCT_UPDATED, quantityChange, owner);
+        productTypeahead.refreshAfterCommit(product.getId(), owner);
         logger.info("Product with id {} of user {} updated, new name is {}", product.getId(), owner.getEmail(), updatedProduct.getName());
     }
 
@@ -103,7 +133,17 @@ public class ProductService {
             throw new ProductDeletionNotAllowedException();
         }
         productRepository.deleteById(id);
+        productTypeahead.refreshAfterCommit(id, owner);
+        dashboardCache.invalidateAfterCommit(owner);
         logger.info("Product with id {} of user {} deleted", id, owner.getEmail());
     }
 
+    private void recordStockMovement(Product product, StockMovementReason reason, int quantityChange, User owner) {
+        if (quantityChange == 0) {
+            return;
+        }
+        stockMovementRepository.save(new StockMovement(product, reason, quantityChange));
+        outboxPublisher.publish(OutboxEventType.STOCK_CHANGED, product.getId(), owner, Map.of("quantityChange", quantityChange));
+    }
+
 }
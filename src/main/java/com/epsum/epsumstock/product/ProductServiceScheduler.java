@@ -0,0 +1,20 @@
+package com.epsum.epsumstock.product;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+@Service
+public class ProductServiceScheduler {
+
+    private final StockMovementRepository stockMovementRepository;
+
+    public ProductServiceScheduler(StockMovementRepository stockMovementRepository) {
+        this.stockMovementRepository = stockMovementRepository;
+    }
+
+    @Scheduled(cron = "@daily")
+    private void createStockSnapshots() {
+        stockMovementRepository.createSnapshots();
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.epsum.epsumstock.product;
+
+import java.math.BigDecimal;
+
+public record ProductSuggestion(Long id, String name, BigDecimal price, Integer quantity) {}
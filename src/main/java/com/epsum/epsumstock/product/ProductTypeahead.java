@@ -0,0 +1,37 @@
+package com.epsum.epsumstock.product;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Typeahead;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.List;
+
+@Service
+public class ProductTypeahead extends Typeahead<ProductSuggestion> {
+
+    private final ProductRepository productRepository;
+
+    public ProductTypeahead(
+            ProductRepository productRepository,
+            @Value("${typeahead.capacity:1000}") int capacity,
+            @Value("${typeahead.max-idle:30m}") Duration maxIdle
+    ) {
+        super(ProductSuggestion::id, ProductSuggestion::name, capacity, maxIdle);
+        this.productRepository = productRepository;
+    }
+
+    @Override
+    protected List<ProductSuggestion> load(User owner) {
+        return productRepository.findSuggestionsByOwner(owner);
+    }
+
+    @Override
+    protected List<ProductSuggestion> load(Collection<Long> ids, User owner) {
+        return productRepository.findSuggestionsByIdInAndOwner(ids, owner);
+    }
+
+}
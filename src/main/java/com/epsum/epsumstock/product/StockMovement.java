@@ -0,0 +1,66 @@
+package com.epsum.epsumstock.product;
+
+import jakarta.persistence.*;
+import jakarta.validation.constraints.NotNull;
+
+import java.time.LocalDateTime;
+
+@Entity
+public class StockMovement {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "stock_movement_id_seq")
+    @SequenceGenerator(name = "stock_movement_id_seq", sequenceName = "stock_movement_id_seq", allocationSize = 50)
+    private Long id;
+
+    @NotNull
+    @ManyToOne(optional = false, fetch = FetchType.LAZY)
+    private Product product;
+
+    @NotNull
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private StockMovementReason reason;
+
+    private Long orderId;
+
+    @NotNull
+    @Column(nullable = false)
+    private Integer quantityChange;
+
+    @Column(nullable = false, insertable = false, updatable = false)
+    private LocalDateTime creationTime;
+
+    public StockMovement() {}
+
+    public StockMovement(Product product, StockMovementReason reason, Integer quantityChange) {
+        this.product = product;
+        this.reason = reason;
+        this.quantityChange = quantityChange;
+    }
+
+    public Long getId() {
+        return id;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public StockMovementReason getReason() {
+        return reason;
+    }
+
+    public Long getOrderId() {
+        return orderId;
+    }
+
+    public Integer getQuantityChange() {
+        return quantityChange;
+    }
+
+    public LocalDateTime getCreationTime() {
+        return creationTime;
+    }
+
+}
@@ -0,0 +1,5 @@
+package com.epsum.epsumstock.product;
+
+public enum StockMovementReason {
+    OPENING_BALANCE, PRODUCT_CREATED, PRODUCT_UPDATED, ORDER_CREATED, ORDER_UPDATED, ORDER_DELETED
+}
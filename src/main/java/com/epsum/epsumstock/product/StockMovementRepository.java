@@ -0,0 +1,18 @@
+package com.epsum.epsumstock.product;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.query.Procedure;
+import org.springframework.data.repository.query.Param;
+
+import java.time.LocalDateTime;
+
+public interface StockMovementRepository extends JpaRepository<StockMovement, Long> {
+
+    @Query(value = "SELECT stock_at(:productId, :time)", nativeQuery = true)
+    int findStockAt(@Param("productId") long productId, @Param("time") LocalDateTime time);
+
+    @Procedure("create_stock_snapshots")
+    void createSnapshots();
+
+}
@@ -1,7 +1,7 @@
 package com.epsum.epsumstock.util;
 
-import java.io.ByteArrayOutputStream;
+import org.springframework.core.io.Resource;
 
-public record Document(String filename, ByteArrayOutputStream content, long size) {
+public record Document(String filename, Resource content, long size) {
 
 }
@@ -0,0 +1,80 @@
+package com.epsum.epsumstock.util;
+
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Arrays;
+
+class DocumentBuffer extends OutputStream {
+
+    private final byte[] buffer;
+    private final Path directory;
+    private int count;
+    private long size;
+    private Path file;
+    private OutputStream fileStream;
+
+    DocumentBuffer(byte[] buffer, Path directory) {
+        this.buffer = buffer;
+        this.directory = directory;
+    }
+
+    @Override
+    public void write(int b) throws IOException {
+        if (file == null && count < buffer.length) {
+            buffer[count++] = (byte) b;
+        } else {
+            if (file == null) spill();
+            fileStream.write(b);
+        }
+        size++;
+    }
+
+    @Override
+    public void write(byte[] b, int off, int len) throws IOException {
+        if (file == null && count + len <= buffer.length) {
+            System.arraycopy(b, off, buffer, count, len);
+            count += len;
+        } else {
+            if (file == null) spill();
+            fileStream.write(b, off, len);
+        }
+        size += len;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (fileStream != null) {
+            fileStream.close();
+        }
+    }
+
+    long size() {
+        return size;
+    }
+
+    Resource toResource() throws IOException {
+        close();
+        return file != null ? new FileSystemResource(file) : new ByteArrayResource(Arrays.copyOf(buffer, count));
+    }
+
+    void discard() throws IOException {
+        close();
+        if (file != null) {
+            Files.deleteIfExists(file);
+        }
+    }
+
+    private void spill() throws IOException {
+        file = Files.createTempFile(directory, "document-", ".pdf");
+        fileStream = new BufferedOutputStream(Files.newOutputStream(file));
+        fileStream.write(buffer, 0, count);
+    }
+
+}
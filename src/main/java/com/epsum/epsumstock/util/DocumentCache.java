@@ -0,0 +1,205 @@
+package com.epsum.epsumstock.util;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.function.Supplier;
+
+@Component
+public class DocumentCache {
+
+    private static final Logger logger = LoggerFactory.getLogger(DocumentCache.class);
+
+    private final Path directory;
+    private final long heapCapacity;
+    private final Duration maxAge;
+    private final Map<String, byte[]> heap = new LinkedHashMap<>(16, 0.75f, true);
+    private long heapSize;
+
+    public DocumentCache(
+            @Value("${document-cache.directory:${java.io.tmpdir}/epsumstock/documents}") Path directory,
+            @Value("${document-cache.heap-capacity:16MB}") DataSize heapCapacity,
+            @Value("${document-cache.max-age:30d}") Duration maxAge
+    ) {
+        try {
+            this.directory = Files.createDirectories(directory);
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.heapCapacity = heapCapacity.toBytes();
+        this.maxAge = maxAge;
+    }
+
+    public Document get(String key, String version, String filename, Supplier<Document> generator) {
+        return find(key, version, filename).orElseGet(() -> {
+            var document = generator.get();
+            put(key, version, document);
+            return find(key, version, filename).orElse(document);
+        });
+    }
+
+    public boolean contains(String key, String version) {
+        var name = name(key, version);
+        return fromHeap(name) != null || Files.exists(file(name));
+    }
+
+    public Optional<Document> find(String key, String version, String filename) {
+        var name = name(key, version);
+        var content = fromHeap(name);
+        if (content != null) {
+            logger.info("Serving document {} from heap cache", name);
+            return Optional.of(new Document(filename, new ByteArrayResource(content), content.length));
+        }
+        var file = file(name);
+        try {
+            var channel = FileChannel.open(file, StandardOpenOption.READ);
+            try {
+                var size = channel.size();
+                touch(file);
+                logger.info("Serving document {} from disk cache", name);
+                return Optional.of(new Document(filename, new InputStreamResource(Channels.newInputStream(channel), file.toString()), size));
+            } catch (IOException e) {
+                channel.close();
+                throw e;
+            }
+        } catch (NoSuchFileException e) {
+            logger.info("Document {} not cached", name);
+        } catch (IOException e) {
+            logger.info("Failed to read cached document {}", name);
+        }
+        return Optional.empty();
+    }
+
+    public void put(String key, String version, Document document) {
+        var name = name(key, version);
+        try {
+            if (document.content() instanceof FileSystemResource resource) {
+                move(resource.getFilePath(), file(name));
+                return;
+            }
+            var content = document.content() instanceof ByteArrayResource resource
+                    ? resource.getByteArray()
+                    : document.content().getContentAsByteArray();
+            var temporaryFile = Files.createTempFile(directory, name, ".tmp");
+            Files.write(temporaryFile, content);
+            move(temporaryFile, file(name));
+            toHeap(name, content);
+        } catch (IOException e) {
+            logger.info("Failed to cache document {}", name);
+        }
+    }
+
+    public void evict(String key) {
+        var prefix = key + "_";
+        removeFromHeap(prefix);
+        var deleted = 0;
+        try (var files = Files.newDirectoryStream(directory, prefix + "*.pdf")) {
+            for (var file : files) {
+                delete(file);
+                deleted++;
+            }
+        } catch (IOException e) {
+            logger.info("Failed to list cached versions of document {}", key);
+        }
+        logger.info("Evicted {} cached versions of document {}", deleted, key);
+    }
+
+    public void deleteExpired() {
+        var expirationTime = FileTime.from(Instant.now().minus(maxAge));
+        var deleted = 0;
+        try (var files = Files.newDirectoryStream(directory, "*.pdf")) {
+            for (var file : files) {
+                if (Files.getLastModifiedTime(file).compareTo(expirationTime) < 0) {
+                    delete(file);
+                    deleted++;
+                }
+            }
+        } catch (IOException e) {
+            logger.info("Failed to list cached documents in {}", directory);
+        }
+        logger.info("Deleted {} expired cached documents", deleted);
+    }
+
+    private void move(Path source, Path target) throws IOException {
+        try {
+            Files.move(source, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+        } catch (AtomicMoveNotSupportedException e) {
+            Files.move(source, target, StandardCopyOption.REPLACE_EXISTING);
+        }
+    }
+
+    private void touch(Path file) {
+        try {
+            Files.setLastModifiedTime(file, FileTime.from(Instant.now()));
+        } catch (IOException e) {
+            logger.info("Failed to touch cached document {}", file);
+        }
+    }
+
+    private synchronized byte[] fromHeap(String name) {
+        return heap.get(name);
+    }
+
+    private synchronized void toHeap(String name, byte[] content) {
+        if (content.length > heapCapacity) {
+            return;
+        }
+        var previous = heap.put(name, content);
+        heapSize += content.length - (previous != null ? previous.length : 0);
+        var iterator = heap.values().iterator();
+        while (heapSize > heapCapacity) {
+            heapSize -= iterator.next().length;
+            iterator.remove();
+        }
+    }
+
+    private synchronized void removeFromHeap(String prefix) {
+        var iterator = heap.entrySet().iterator();
+        while (iterator.hasNext()) {
+            var entry = iterator.next();
+            if (entry.getKey().startsWith(prefix)) {
+                heapSize -= entry.getValue().length;
+                iterator.remove();
+            }
+        }
+    }
+
+    private void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            logger.info("Failed to delete cached document {}", file);
+        }
+    }
+
+    private Path file(String name) {
+        return directory.resolve(name + ".pdf");
+    }
+
+    private String name(String key, String version) {
+        return key + "_" + version;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.epsum.epsumstock.util;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.web.bind.annotation.ResponseStatus;
+
+@ResponseStatus(HttpStatus.SERVICE_UNAVAILABLE)
+public class DocumentGenerationUnavailableException extends RuntimeException {
+
+}
@@ -1,15 +1,37 @@
 package com.epsum.epsumstock.util;
 
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import jakarta.annotation.PreDestroy;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
 import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
 import org.thymeleaf.TemplateEngine;
 import org.thymeleaf.context.Context;
+import org.xhtmlrenderer.pdf.ITextFontResolver;
 import org.xhtmlrenderer.pdf.ITextRenderer;
 
-import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
 import java.util.Locale;
 import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.Future;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.UnaryOperator;
 
 @Component
 public class DocumentGenerator {
@@ -17,20 +39,140 @@ public class DocumentGenerator {
     private static final Logger logger = LoggerFactory.getLogger(DocumentGenerator.class);
 
     private final TemplateEngine templateEngine;
+    private final ThreadPoolExecutor executor;
+    private final ThreadLocal<ITextFontResolver> fontResolvers = ThreadLocal.withInitial(() -> new ITextRenderer().getFontResolver());
+    private final ThreadLocal<byte[]> buffers;
+    private final Path spillDirectory;
+    private final Duration timeout;
+    private final Timer renderTimer;
+    private final Counter rejectedCounter;
 
-    public DocumentGenerator(TemplateEngine templateEngine) {
+    public DocumentGenerator(
+            TemplateEngine templateEngine,
+            MeterRegistry meterRegistry,
+            @Value("${document-generator.threads:2}") int threads,
+            @Value("${document-generator.queue-capacity:16}") int queueCapacity,
+            @Value("${document-generator.timeout:10s}") Duration timeout,
+            @Value("${document-generator.spill-threshold:1MB}") DataSize spillThreshold,
+            @Value("${document-generator.spill-directory:${java.io.tmpdir}}") Path spillDirectory
+    ) {
         this.templateEngine = templateEngine;
+        this.buffers = ThreadLocal.withInitial(() -> new byte[Math.toIntExact(spillThreshold.toBytes())]);
+        this.spillDirectory = spillDirectory;
+        this.executor = new ThreadPoolExecutor(
+                threads,
+                threads,
+                0,
+                TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("document-generator-")
+        );
+        this.timeout = timeout;
+        this.renderTimer = Timer.builder("documents.render").register(meterRegistry);
+        this.rejectedCounter = Counter.builder("documents.render.rejected").register(meterRegistry);
+        Gauge.builder("documents.render.queue", executor, e -> e.getQueue().size()).register(meterRegistry);
+        Gauge.builder("documents.render.active", executor, ThreadPoolExecutor::getActiveCount).register(meterRegistry);
     }
 
     public Document generate(String filename, String template, Map<String, Object> variables, Locale locale) {
-        var html = templateEngine.process(template, contextFromMap(variables, locale));
-        var content = new ByteArrayOutputStream();
-        var textRenderer = new ITextRenderer();
-        textRenderer.setDocumentFromString(html);
-        textRenderer.layout();
-        textRenderer.createPDF(content);
+        return generate(filename, render(template, variables, locale));
+    }
+
+    public String render(String template, Map<String, Object> variables, Locale locale) {
+        return templateEngine.process(template, contextFromMap(variables, locale));
+    }
+
+    public Document generate(String filename, String html) {
+        return generate(filename, List.of(html));
+    }
+
+    public Document generate(String filename, List<String> pages) {
+        return await(submit(filename, pages, UnaryOperator.identity()));
+    }
+
+    public CompletableFuture<Document> submit(String filename, String html, UnaryOperator<Document> finisher) {
+        return submit(filename, List.of(html), finisher);
+    }
+
+    public CompletableFuture<Document> submit(String filename, List<String> pages, UnaryOperator<Document> finisher) {
+        var document = new CompletableFuture<Document>();
+        Future<?> task;
+        try {
+            task = executor.submit(() -> {
+                try {
+                    document.complete(finisher.apply(renderTimer.recordCallable(() -> createPdf(filename, pages))));
+                } catch (Exception e) {
+                    document.completeExceptionally(e);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            rejectedCounter.increment();
+            logger.info("Document generator saturated with {} queued documents, throwing exception", executor.getQueue().size());
+            throw new DocumentGenerationUnavailableException();
+        }
         logger.info("Generating document");
-        return new Document(filename, content, content.size());
+        CompletableFuture.delayedExecutor(timeout.toMillis(), TimeUnit.MILLISECONDS).execute(() -> {
+            if (document.completeExceptionally(new DocumentGenerationUnavailableException())) {
+                logger.info("Document not generated within {}, throwing exception", timeout);
+            }
+        });
+        document.whenComplete((generated, e) -> {
+            if (e != null) {
+                task.cancel(true);
+            }
+        });
+        return document;
+    }
+
+    public Document await(Future<Document> future) {
+        try {
+            return future.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new DocumentGenerationUnavailableException();
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof DocumentGenerationUnavailableException unavailable) {
+                throw unavailable;
+            }
+            if (e.getCause() instanceof IOException ioException) {
+                throw new UncheckedIOException(ioException);
+            }
+            throw new IllegalStateException(e.getCause());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    private Document createPdf(String filename, List<String> pages) throws IOException {
+        var content = new DocumentBuffer(buffers.get(), spillDirectory);
+        var textRenderer = new ITextRenderer();
+        textRenderer.getSharedContext().setFontResolver(fontResolvers.get());
+        try {
+            for (int i = 0; i < pages.size(); i++) {
+                if (Thread.interrupted()) {
+                    throw new InterruptedIOException();
+                }
+                textRenderer.setDocumentFromString(pages.get(i));
+                textRenderer.layout();
+                if (i == 0) {
+                    textRenderer.createPDF(content, false);
+                } else {
+                    textRenderer.writeNextDocument();
+                }
+            }
+            textRenderer.finishPDF();
+            if (Thread.interrupted()) {
+                throw new InterruptedIOException();
+            }
+            return new Document(filename, content.toResource(), content.size());
+        } catch (RuntimeException | IOException e) {
+            fontResolvers.remove();
+            content.discard();
+            throw e;
+        }
     }
 
     private Context contextFromMap(Map<String, Object> variables, Locale locale) {
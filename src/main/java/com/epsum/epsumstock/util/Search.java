@@ -0,0 +1,15 @@
+package com.epsum.epsumstock.util;
+
+import org.springframework.data.domain.Limit;
+
+public final class Search {
+
+    public static final Limit LIMIT = Limit.of(50);
+
+    private Search() {}
+
+    public static String containing(String text) {
+        return "%" + text.replace("!", "!!").replace("%", "!%").replace("_", "!_") + "%";
+    }
+
+}
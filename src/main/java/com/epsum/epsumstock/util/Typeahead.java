@@ -0,0 +1,152 @@
+package com.epsum.epsumstock.util;
+
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Function;
+
+public abstract class Typeahead<T> {
+
+    static final int LIMIT = 20;
+
+    private final Map<Long, Entry<T>> entries = new ConcurrentHashMap<>();
+    private final Function<T, Long> idFunction;
+    private final Function<T, String> nameFunction;
+    private final int capacity;
+    private final Duration maxIdle;
+
+    protected Typeahead(Function<T, Long> idFunction, Function<T, String> nameFunction, int capacity, Duration maxIdle) {
+        this.idFunction = idFunction;
+        this.nameFunction = nameFunction;
+        this.capacity = capacity;
+        this.maxIdle = maxIdle;
+    }
+
+    protected abstract List<T> load(User owner);
+
+    protected abstract List<T> load(Collection<Long> ids, User owner);
+
+    public List<T> suggest(String query, User owner) {
+        return index(owner).search(query, LIMIT);
+    }
+
+    public List<T> findAll(Collection<Long> ids, User owner) {
+        return index(owner).findAll(ids);
+    }
+
+    public void refreshAfterCommit(Long id, User owner) {
+        refreshAfterCommit(List.of(id), owner);
+    }
+
+    public void refreshAfterCommit(Collection<Long> ids, User owner) {
+        if (ids.isEmpty()) {
+            return;
+        }
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            refresh(ids, owner);
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                refresh(ids, owner);
+            }
+        });
+    }
+
+    @Scheduled(fixedDelayString = "${typeahead.eviction-interval:5m}")
+    public void evictIdle() {
+        var expirationTime = System.nanoTime() - maxIdle.toNanos();
+        entries.forEach((ownerId, entry) -> {
+            if (entry.lastAccess - expirationTime <= 0) {
+                entries.remove(ownerId, entry);
+            }
+        });
+    }
+
+    int size() {
+        return entries.size();
+    }
+
+    private void refresh(Collection<Long> ids, User owner) {
+        var entry = entries.get(owner.getId());
+        if (entry == null) {
+            return;
+        }
+        var index = entry.indexOrPending(ids);
+        if (index != null) {
+            index.replace(ids, load(ids, owner));
+        }
+    }
+
+    private TypeaheadIndex<T> index(User owner) {
+        var entry = entries.computeIfAbsent(owner.getId(), ownerId -> new Entry<>());
+        entry.lastAccess = System.nanoTime();
+        var index = entry.index;
+        if (index != null) {
+            return index;
+        }
+        synchronized (entry) {
+            if (entry.index == null) {
+                var built = new TypeaheadIndex<>(idFunction, nameFunction, load(owner));
+                var pendingIds = entry.publish(built);
+                if (!pendingIds.isEmpty()) {
+                    built.replace(pendingIds, load(pendingIds, owner));
+                }
+                evictLeastRecentlyUsed();
+            }
+            return entry.index;
+        }
+    }
+
+    private void evictLeastRecentlyUsed() {
+        var excess = entries.size() - capacity;
+        if (excess <= 0) {
+            return;
+        }
+        entries.entrySet().stream()
+                .filter(e -> e.getValue().index != null)
+                .sorted(Comparator.comparingLong(e -> e.getValue().lastAccess))
+                .limit(excess)
+                .toList()
+                .forEach(e -> entries.remove(e.getKey(), e.getValue()));
+    }
+
+    private static final class Entry<T> {
+
+        private final Set<Long> pendingIds = new HashSet<>();
+        private volatile TypeaheadIndex<T> index;
+        private volatile long lastAccess = System.nanoTime();
+
+        private TypeaheadIndex<T> indexOrPending(Collection<Long> ids) {
+            synchronized (pendingIds) {
+                if (index == null) {
+                    pendingIds.addAll(ids);
+                }
+                return index;
+            }
+        }
+
+        private Set<Long> publish(TypeaheadIndex<T> built) {
+            synchronized (pendingIds) {
+                index = built;
+                var published = Set.copyOf(pendingIds);
+                pendingIds.clear();
+                return published;
+            }
+        }
+
+    }
+
+}
@@ -0,0 +1,108 @@
+package com.epsum.epsumstock.util;
+
+import java.util.*;
+import java.util.function.Function;
+
+public class TypeaheadIndex<T> {
+
+    private static final int GRAM_LENGTH = 3;
+
+    private final Function<T, Long> idFunction;
+    private final Function<T, String> nameFunction;
+    private final Map<Long, T> entries = new HashMap<>();
+    private final NavigableMap<String, Long> names = new TreeMap<>();
+    private final Map<String, Set<Long>> grams = new HashMap<>();
+
+    public TypeaheadIndex(Function<T, Long> idFunction, Function<T, String> nameFunction, Collection<T> entries) {
+        this.idFunction = idFunction;
+        this.nameFunction = nameFunction;
+        entries.forEach(this::add);
+    }
+
+    public synchronized List<T> search(String query, int limit) {
+        var normalizedQuery = normalize(query);
+        var ids = new LinkedHashSet<Long>();
+        for (var id : names.subMap(normalizedQuery, true, normalizedQuery + Character.MAX_VALUE, false).values()) {
+            if (ids.size() == limit) {
+                break;
+            }
+            ids.add(id);
+        }
+        if (ids.size() < limit && normalizedQuery.length() >= GRAM_LENGTH) {
+            var matches = candidates(normalizedQuery).stream()
+                    .filter(id -> !ids.contains(id))
+                    .map(entries::get)
+                    .filter(entry -> normalize(nameFunction.apply(entry)).contains(normalizedQuery))
+                    .sorted(Comparator.comparing(entry -> normalize(nameFunction.apply(entry))))
+                    .limit(limit - ids.size())
+                    .map(idFunction)
+                    .toList();
+            ids.addAll(matches);
+        }
+        return ids.stream().map(entries::get).toList();
+    }
+
+    public synchronized List<T> findAll(Collection<Long> ids) {
+        return ids.stream().map(entries::get).filter(Objects::nonNull).toList();
+    }
+
+    public synchronized void replace(Collection<Long> ids, Collection<T> updatedEntries) {
+        ids.forEach(this::remove);
+        updatedEntries.forEach(this::add);
+    }
+
+    private void add(T entry) {
+        var id = idFunction.apply(entry);
+        remove(id);
+        var name = normalize(nameFunction.apply(entry));
+        entries.put(id, entry);
+        names.put(key(name, id), id);
+        grams(name).forEach(gram -> grams.computeIfAbsent(gram, g -> new HashSet<>()).add(id));
+    }
+
+    private void remove(Long id) {
+        var entry = entries.remove(id);
+        if (entry == null) {
+            return;
+        }
+        var name = normalize(nameFunction.apply(entry));
+        names.remove(key(name, id));
+        grams(name).forEach(gram -> {
+            var ids = grams.get(gram);
+            ids.remove(id);
+            if (ids.isEmpty()) grams.remove(gram);
+        });
+    }
+
+    private Set<Long> candidates(String normalizedQuery) {
+        var postings = new ArrayList<Set<Long>>();
+        for (var gram : grams(normalizedQuery)) {
+            var ids = grams.get(gram);
+            if (ids == null) {
+                return Set.of();
+            }
+            postings.add(ids);
+        }
+        postings.sort(Comparator.comparingInt(Set::size));
+        var candidates = new HashSet<>(postings.getFirst());
+        postings.subList(1, postings.size()).forEach(candidates::retainAll);
+        return candidates;
+    }
+
+    private Set<String> grams(String name) {
+        var grams = new HashSet<String>();
+        for (int i = 0; i + GRAM_LENGTH <= name.length(); i++) {
+            grams.add(name.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private String key(String name, Long id) {
+        return name + '\u0000' + id;
+    }
+
+    private String normalize(String text) {
+        return text.strip().toLowerCase(Locale.ROOT);
+    }
+
+}
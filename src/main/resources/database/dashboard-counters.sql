@@ -0,0 +1,191 @@
+BEGIN;
+
+LOCK TABLE customer, category, product, "order" IN SHARE ROW EXCLUSIVE MODE;
+
+DROP VIEW IF EXISTS dashboard;
+DROP FUNCTION IF EXISTS calculate_total_sales(BIGINT);
+
+CREATE TABLE dashboard_counters (
+    owner_id BIGINT PRIMARY KEY REFERENCES "user"(id) ON DELETE CASCADE,
+    total_customers BIGINT NOT NULL DEFAULT 0,
+    total_categories BIGINT NOT NULL DEFAULT 0,
+    total_products BIGINT NOT NULL DEFAULT 0,
+    total_unpaid_orders BIGINT NOT NULL DEFAULT 0,
+    total_paid_orders BIGINT NOT NULL DEFAULT 0,
+    total_sales DECIMAL(14, 2) NOT NULL DEFAULT 0.00
+);
+
+CREATE OR REPLACE FUNCTION create_dashboard_counters()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    INSERT INTO dashboard_counters (owner_id)
+    SELECT n.id FROM new_rows n
+    ON CONFLICT (owner_id) DO NOTHING;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER user_dashboard_counters_insert_trigger
+    AFTER INSERT ON "user"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE create_dashboard_counters();
+
+CREATE OR REPLACE FUNCTION count_dashboard_rows()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        UPDATE dashboard_counters d
+        SET total_customers = d.total_customers + CASE WHEN TG_TABLE_NAME = ''customer'' THEN r.count ELSE 0 END,
+            total_categories = d.total_categories + CASE WHEN TG_TABLE_NAME = ''category'' THEN r.count ELSE 0 END,
+            total_products = d.total_products + CASE WHEN TG_TABLE_NAME = ''product'' THEN r.count ELSE 0 END
+        FROM (SELECT n.owner_id, COUNT(*) AS count FROM new_rows n GROUP BY n.owner_id) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''DELETE'' THEN
+        UPDATE dashboard_counters d
+        SET total_customers = d.total_customers - CASE WHEN TG_TABLE_NAME = ''customer'' THEN r.count ELSE 0 END,
+            total_categories = d.total_categories - CASE WHEN TG_TABLE_NAME = ''category'' THEN r.count ELSE 0 END,
+            total_products = d.total_products - CASE WHEN TG_TABLE_NAME = ''product'' THEN r.count ELSE 0 END
+        FROM (SELECT o.owner_id, COUNT(*) AS count FROM old_rows o GROUP BY o.owner_id) r
+        WHERE d.owner_id = r.owner_id;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER customer_dashboard_counters_insert_trigger
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER customer_dashboard_counters_delete_trigger
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER category_dashboard_counters_insert_trigger
+    AFTER INSERT ON category
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER category_dashboard_counters_delete_trigger
+    AFTER DELETE ON category
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER product_dashboard_counters_insert_trigger
+    AFTER INSERT ON product
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER product_dashboard_counters_delete_trigger
+    AFTER DELETE ON product
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE FUNCTION count_dashboard_orders()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders + r.unpaid,
+            total_paid_orders = d.total_paid_orders + r.paid,
+            total_sales = d.total_sales + r.sales
+        FROM (
+            SELECT n.owner_id,
+                   COUNT(*) FILTER (WHERE n.status = ''UNPAID'') AS unpaid,
+                   COUNT(*) FILTER (WHERE n.status = ''PAID'') AS paid,
+                   COALESCE(SUM(n.total_amount) FILTER (WHERE n.status = ''PAID''), 0) AS sales
+            FROM new_rows n
+            GROUP BY n.owner_id
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''DELETE'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders - r.unpaid,
+            total_paid_orders = d.total_paid_orders - r.paid,
+            total_sales = d.total_sales - r.sales
+        FROM (
+            SELECT o.owner_id,
+                   COUNT(*) FILTER (WHERE o.status = ''UNPAID'') AS unpaid,
+                   COUNT(*) FILTER (WHERE o.status = ''PAID'') AS paid,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.status = ''PAID''), 0) AS sales
+            FROM old_rows o
+            GROUP BY o.owner_id
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders + r.unpaid,
+            total_paid_orders = d.total_paid_orders + r.paid,
+            total_sales = d.total_sales + r.sales
+        FROM (
+            SELECT c.owner_id, SUM(c.unpaid) AS unpaid, SUM(c.paid) AS paid, SUM(c.sales) AS sales
+            FROM (
+                SELECT n.owner_id,
+                       CASE WHEN n.status = ''UNPAID'' THEN 1 ELSE 0 END AS unpaid,
+                       CASE WHEN n.status = ''PAID'' THEN 1 ELSE 0 END AS paid,
+                       CASE WHEN n.status = ''PAID'' THEN n.total_amount ELSE 0 END AS sales
+                FROM new_rows n
+                UNION ALL
+                SELECT o.owner_id,
+                       CASE WHEN o.status = ''UNPAID'' THEN -1 ELSE 0 END,
+                       CASE WHEN o.status = ''PAID'' THEN -1 ELSE 0 END,
+                       CASE WHEN o.status = ''PAID'' THEN -o.total_amount ELSE 0 END
+                FROM old_rows o
+            ) c
+            GROUP BY c.owner_id
+            HAVING SUM(c.unpaid) <> 0 OR SUM(c.paid) <> 0 OR SUM(c.sales) <> 0
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_insert_trigger
+    AFTER INSERT ON "order"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_update_trigger
+    AFTER UPDATE ON "order"
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_delete_trigger
+    AFTER DELETE ON "order"
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+INSERT INTO dashboard_counters (owner_id, total_customers, total_categories, total_products, total_unpaid_orders, total_paid_orders, total_sales)
+SELECT
+    u.id,
+    (SELECT COUNT(*) FROM customer c WHERE c.owner_id = u.id),
+    (SELECT COUNT(*) FROM category c WHERE c.owner_id = u.id),
+    (SELECT COUNT(*) FROM product p WHERE p.owner_id = u.id),
+    (SELECT COUNT(*) FROM "order" o WHERE o.owner_id = u.id AND o.status = 'UNPAID'),
+    (SELECT COUNT(*) FROM "order" o WHERE o.owner_id = u.id AND o.status = 'PAID'),
+    (SELECT COALESCE(SUM(o.total_amount), 0.00) FROM "order" o WHERE o.owner_id = u.id AND o.status = 'PAID')
+FROM "user" u
+ON CONFLICT (owner_id) DO NOTHING;
+
+COMMIT;
@@ -0,0 +1,25 @@
+BEGIN;
+
+LOCK TABLE "order", order_item, product IN SHARE ROW EXCLUSIVE MODE;
+
+ALTER TABLE order_item ADD COLUMN price DECIMAL(12, 2);
+
+UPDATE order_item oi
+SET price = p.price
+FROM product p
+WHERE oi.product_id = p.id;
+
+ALTER TABLE order_item
+    ALTER COLUMN price SET NOT NULL,
+    ADD CONSTRAINT order_item_price_check CHECK (price >= 0.01);
+
+UPDATE "order" o
+SET total_quantity = t.total_quantity, total_amount = t.total_amount
+FROM (
+    SELECT oi.order_id, SUM(oi.quantity) AS total_quantity, SUM(oi.quantity * oi.price) AS total_amount
+    FROM order_item oi
+    GROUP BY oi.order_id
+) t
+WHERE o.id = t.order_id AND (o.total_quantity, o.total_amount) IS DISTINCT FROM (t.total_quantity, t.total_amount);
+
+COMMIT;
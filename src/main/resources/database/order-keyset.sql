@@ -0,0 +1 @@
+CREATE INDEX CONCURRENTLY IF NOT EXISTS order_owner_id_status_date_id_idx ON "order"(owner_id, status, "date", id);
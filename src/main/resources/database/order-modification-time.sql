@@ -0,0 +1,93 @@
+BEGIN;
+
+ALTER TABLE "order" ADD COLUMN modification_time TIMESTAMP NOT NULL DEFAULT clock_timestamp();
+
+CREATE OR REPLACE FUNCTION touch_order()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    NEW.modification_time := clock_timestamp();
+    RETURN NEW;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_modification_time_update_trigger
+    BEFORE UPDATE ON "order"
+    FOR EACH ROW
+    EXECUTE PROCEDURE touch_order();
+
+CREATE OR REPLACE FUNCTION touch_orders_of_changed_rows()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''INSERT'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n);
+    ELSIF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''DELETE'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''order_item'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n UNION SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''customer'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.customer_id IN (
+            SELECT n.id
+            FROM new_rows n
+            JOIN old_rows d ON d.id = n.id
+            WHERE (n.name, n.address, n.phone) IS DISTINCT FROM (d.name, d.address, d.phone)
+        );
+    ELSIF TG_TABLE_NAME = ''product'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (
+            SELECT i.order_id
+            FROM new_rows n
+            JOIN old_rows d ON d.id = n.id
+            JOIN order_item i ON i.product_id = n.id
+            WHERE n.name IS DISTINCT FROM d.name
+        );
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_insert_trigger
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_update_trigger
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_delete_trigger
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER customer_modification_time_update_trigger
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER product_modification_time_update_trigger
+    AFTER UPDATE ON product
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+COMMIT;
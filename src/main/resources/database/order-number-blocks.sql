@@ -0,0 +1,30 @@
+CREATE OR REPLACE FUNCTION reserve_order_numbers(p_owner_id BIGINT, p_count INTEGER)
+    RETURNS INTEGER
+    LANGUAGE PLPGSQL
+    VOLATILE
+AS
+'
+DECLARE
+    v_counter INTEGER;
+BEGIN
+    INSERT INTO order_sequence(owner_id, counter)
+    VALUES (p_owner_id, p_count)
+    ON CONFLICT(owner_id)
+    DO UPDATE SET counter = order_sequence.counter + p_count
+    RETURNING counter INTO v_counter;
+    RETURN v_counter;
+END;
+';
+
+CREATE OR REPLACE FUNCTION generate_order_number()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF NEW.number IS NULL THEN
+        NEW.number := next_order_number(NEW.owner_id);
+    END IF;
+    RETURN NEW;
+END;
+';
@@ -0,0 +1,19 @@
+DROP TABLE IF EXISTS order_submission;
+
+CREATE TABLE order_submission (
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    token VARCHAR(64) NOT NULL,
+    order_id BIGINT REFERENCES "order"(id) ON DELETE SET NULL,
+    submission_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (owner_id, token)
+);
+
+CREATE OR REPLACE PROCEDURE delete_expired_order_submissions()
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    DELETE FROM order_submission os
+    WHERE os.submission_time + INTERVAL ''24 hours'' < CURRENT_TIMESTAMP;
+END;
+';
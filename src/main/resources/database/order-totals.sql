@@ -0,0 +1,38 @@
+BEGIN;
+
+LOCK TABLE "order", order_item, product IN SHARE ROW EXCLUSIVE MODE;
+
+ALTER TABLE "order"
+    ADD COLUMN total_quantity INTEGER NOT NULL DEFAULT 0,
+    ADD COLUMN total_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00;
+
+UPDATE "order" o
+SET total_quantity = t.total_quantity, total_amount = t.total_amount
+FROM (
+    SELECT oi.order_id, SUM(oi.quantity) AS total_quantity, SUM(oi.quantity * p.price) AS total_amount
+    FROM order_item oi
+    INNER JOIN product p
+    ON oi.product_id = p.id
+    GROUP BY oi.order_id
+) t
+WHERE o.id = t.order_id;
+
+CREATE OR REPLACE FUNCTION calculate_total_sales(p_owner_id BIGINT)
+    RETURNS DECIMAL(12, 2)
+    STABLE
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_total DECIMAL(12, 2);
+BEGIN
+   SELECT SUM(o.total_amount)
+   INTO v_total
+   FROM "order" o
+   WHERE o.status = ''PAID'' AND o.owner_id = p_owner_id;
+
+   RETURN COALESCE(v_total, 0.00);
+END;
+';
+
+COMMIT;
@@ -0,0 +1,12 @@
+CREATE TABLE IF NOT EXISTS outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('ORDER_CREATED', 'ORDER_UPDATED', 'ORDER_DELETED', 'STOCK_CHANGED')),
+    aggregate_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    creation_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
+
+ALTER TABLE outbox_event ADD COLUMN IF NOT EXISTS claim_time TIMESTAMP;
@@ -0,0 +1,14 @@
+ALTER SEQUENCE user_id_seq INCREMENT BY 50;
+SELECT setval('user_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM "user"));
+
+ALTER SEQUENCE category_id_seq INCREMENT BY 50;
+SELECT setval('category_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM category));
+
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
+SELECT setval('product_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM product));
+
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
+SELECT setval('customer_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM customer));
+
+ALTER SEQUENCE order_id_seq INCREMENT BY 50;
+SELECT setval('order_id_seq', (SELECT COALESCE(MAX(id), 0) + 1 FROM "order"));
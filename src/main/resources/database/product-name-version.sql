@@ -0,0 +1,56 @@
+BEGIN;
+
+ALTER TABLE product ADD COLUMN name_modification_time TIMESTAMP NOT NULL DEFAULT clock_timestamp();
+
+DROP TRIGGER IF EXISTS product_modification_time_update_trigger ON product;
+
+CREATE OR REPLACE FUNCTION touch_orders_of_changed_rows()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''INSERT'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n);
+    ELSIF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''DELETE'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''order_item'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n UNION SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''customer'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.customer_id IN (
+            SELECT n.id
+            FROM new_rows n
+            JOIN old_rows d ON d.id = n.id
+            WHERE (n.name, n.address, n.phone) IS DISTINCT FROM (d.name, d.address, d.phone)
+        );
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE FUNCTION touch_product_name()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    NEW.name_modification_time := clock_timestamp();
+    RETURN NEW;
+END;
+';
+
+CREATE OR REPLACE TRIGGER product_name_modification_time_update_trigger
+    BEFORE UPDATE OF name ON product
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE PROCEDURE touch_product_name();
+
+COMMIT;
@@ -0,0 +1,266 @@
+BEGIN;
+
+LOCK TABLE "order", order_item IN SHARE ROW EXCLUSIVE MODE;
+
+CREATE TABLE sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    period VARCHAR(255) NOT NULL CHECK (period IN ('DAY', 'MONTH')),
+    bucket DATE NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(owner_id, period, bucket)
+);
+
+CREATE TABLE product_sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    period VARCHAR(255) NOT NULL CHECK (period IN ('DAY', 'MONTH')),
+    bucket DATE NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(product_id, period, bucket)
+);
+
+CREATE INDEX product_sales_rollup_owner_id_period_bucket_idx ON product_sales_rollup(owner_id, period, bucket);
+
+CREATE OR REPLACE FUNCTION sales_rollup_lock_key(p_owner_id BIGINT, p_day DATE)
+    RETURNS INTEGER
+    LANGUAGE SQL
+    IMMUTABLE
+AS
+'
+    SELECT hashtext(''sales_rollup:'' || p_owner_id || '':'' || (EXTRACT(YEAR FROM p_day) * 12 + EXTRACT(MONTH FROM p_day)));
+';
+
+CREATE OR REPLACE FUNCTION add_sales_rollup(p_owner_ids BIGINT[], p_days DATE[], p_amounts DECIMAL[], p_units INTEGER[], p_orders INTEGER[])
+    RETURNS VOID
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    PERFORM pg_advisory_xact_lock_shared(l.lock_key)
+    FROM (SELECT DISTINCT sales_rollup_lock_key(d.owner_id, d.day) AS lock_key FROM unnest(p_owner_ids, p_days) AS d(owner_id, day) ORDER BY 1) l;
+    INSERT INTO sales_rollup AS r (owner_id, period, bucket, amount, units, orders)
+    SELECT d.owner_id,
+           p.period,
+           CASE WHEN p.period = ''MONTH'' THEN date_trunc(''month'', d.day)::DATE ELSE d.day END,
+           SUM(d.amount),
+           SUM(d.units),
+           SUM(d.orders)
+    FROM unnest(p_owner_ids, p_days, p_amounts, p_units, p_orders) AS d(owner_id, day, amount, units, orders)
+    CROSS JOIN (VALUES (''DAY''), (''MONTH'')) AS p(period)
+    GROUP BY 1, 2, 3
+    HAVING SUM(d.amount) <> 0 OR SUM(d.units) <> 0 OR SUM(d.orders) <> 0
+    ON CONFLICT (owner_id, period, bucket) DO UPDATE
+    SET amount = r.amount + EXCLUDED.amount,
+        units = r.units + EXCLUDED.units,
+        orders = r.orders + EXCLUDED.orders;
+END;
+';
+
+CREATE OR REPLACE FUNCTION add_product_sales_rollup(p_owner_ids BIGINT[], p_product_ids BIGINT[], p_days DATE[], p_amounts DECIMAL[], p_units INTEGER[], p_orders INTEGER[])
+    RETURNS VOID
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    PERFORM pg_advisory_xact_lock_shared(l.lock_key)
+    FROM (SELECT DISTINCT sales_rollup_lock_key(d.owner_id, d.day) AS lock_key FROM unnest(p_owner_ids, p_days) AS d(owner_id, day) ORDER BY 1) l;
+    INSERT INTO product_sales_rollup AS r (owner_id, product_id, period, bucket, amount, units, orders)
+    SELECT d.owner_id,
+           d.product_id,
+           p.period,
+           CASE WHEN p.period = ''MONTH'' THEN date_trunc(''month'', d.day)::DATE ELSE d.day END,
+           SUM(d.amount),
+           SUM(d.units),
+           SUM(d.orders)
+    FROM unnest(p_owner_ids, p_product_ids, p_days, p_amounts, p_units, p_orders) AS d(owner_id, product_id, day, amount, units, orders)
+    CROSS JOIN (VALUES (''DAY''), (''MONTH'')) AS p(period)
+    GROUP BY 1, 2, 3, 4
+    HAVING SUM(d.amount) <> 0 OR SUM(d.units) <> 0 OR SUM(d.orders) <> 0
+    ON CONFLICT (product_id, period, bucket) DO UPDATE
+    SET amount = r.amount + EXCLUDED.amount,
+        units = r.units + EXCLUDED.units,
+        orders = r.orders + EXCLUDED.orders;
+END;
+';
+
+CREATE OR REPLACE FUNCTION roll_up_order_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        PERFORM add_sales_rollup(array_agg(n.owner_id), array_agg(n."date"), array_agg(n.total_amount), array_agg(n.total_quantity), array_agg(1))
+        FROM new_rows n
+        WHERE n.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM add_sales_rollup(array_agg(o.owner_id), array_agg(o."date"), array_agg(-o.total_amount), array_agg(-o.total_quantity), array_agg(-1))
+        FROM old_rows o
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        PERFORM add_sales_rollup(array_agg(c.owner_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT n.owner_id, n."date", n.total_amount, n.total_quantity, 1
+            FROM new_rows n
+            WHERE n.status = ''PAID''
+            UNION ALL
+            SELECT o.owner_id, o."date", -o.total_amount, -o.total_quantity, -1
+            FROM old_rows o
+            WHERE o.status = ''PAID''
+        ) c(owner_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+        PERFORM add_product_sales_rollup(array_agg(c.owner_id), array_agg(c.product_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT n.owner_id, i.product_id, n."date", i.price * i.quantity, i.quantity, 1
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            JOIN order_item i ON i.order_id = n.id
+            WHERE n.status = ''PAID'' AND (o.status <> n.status OR o."date" <> n."date")
+            UNION ALL
+            SELECT o.owner_id, i.product_id, o."date", -(i.price * i.quantity), -i.quantity, -1
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            JOIN order_item i ON i.order_id = o.id
+            WHERE o.status = ''PAID'' AND (o.status <> n.status OR o."date" <> n."date")
+        ) c(owner_id, product_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_insert_trigger
+    AFTER INSERT ON "order"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_update_trigger
+    AFTER UPDATE ON "order"
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_delete_trigger
+    AFTER DELETE ON "order"
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE FUNCTION roll_up_deleted_order_item_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF OLD.status = ''PAID'' THEN
+        PERFORM add_product_sales_rollup(array_agg(OLD.owner_id), array_agg(i.product_id), array_agg(OLD."date"), array_agg(-(i.price * i.quantity)), array_agg(-i.quantity), array_agg(-1))
+        FROM order_item i
+        WHERE i.order_id = OLD.id
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN OLD;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_cascade_trigger
+    BEFORE DELETE ON "order"
+    FOR EACH ROW
+    EXECUTE PROCEDURE roll_up_deleted_order_item_sales();
+
+CREATE OR REPLACE FUNCTION roll_up_order_item_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(n.product_id), array_agg(o."date"), array_agg(n.price * n.quantity), array_agg(n.quantity), array_agg(1))
+        FROM new_rows n
+        JOIN "order" o ON o.id = n.order_id
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(d.product_id), array_agg(o."date"), array_agg(-(d.price * d.quantity)), array_agg(-d.quantity), array_agg(-1))
+        FROM old_rows d
+        JOIN "order" o ON o.id = d.order_id
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        PERFORM add_product_sales_rollup(array_agg(c.owner_id), array_agg(c.product_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT o.owner_id, n.product_id, o."date", n.price * n.quantity, n.quantity, 1
+            FROM new_rows n
+            JOIN "order" o ON o.id = n.order_id
+            WHERE o.status = ''PAID''
+            UNION ALL
+            SELECT o.owner_id, d.product_id, o."date", -(d.price * d.quantity), -d.quantity, -1
+            FROM old_rows d
+            JOIN "order" o ON o.id = d.order_id
+            WHERE o.status = ''PAID''
+        ) c(owner_id, product_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_insert_trigger
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_update_trigger
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_delete_trigger
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE FUNCTION rebuild_sales_rollups(p_owner_id BIGINT, p_month DATE)
+    RETURNS INTEGER
+    LANGUAGE PLPGSQL
+    VOLATILE
+AS
+'
+DECLARE
+    v_start DATE := date_trunc(''month'', p_month)::DATE;
+    v_end DATE := (date_trunc(''month'', p_month) + INTERVAL ''1 month'')::DATE;
+    v_orders INTEGER;
+BEGIN
+    PERFORM pg_advisory_xact_lock(sales_rollup_lock_key(p_owner_id, v_start));
+    DELETE FROM sales_rollup r
+    WHERE r.owner_id = p_owner_id AND r.bucket >= v_start AND r.bucket < v_end;
+    DELETE FROM product_sales_rollup r
+    WHERE r.owner_id = p_owner_id AND r.bucket >= v_start AND r.bucket < v_end;
+    PERFORM add_sales_rollup(array_agg(o.owner_id), array_agg(o."date"), array_agg(o.total_amount), array_agg(o.total_quantity), array_agg(1))
+    FROM "order" o
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end
+    HAVING COUNT(*) > 0;
+    PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(i.product_id), array_agg(o."date"), array_agg(i.price * i.quantity), array_agg(i.quantity), array_agg(1))
+    FROM "order" o
+    JOIN order_item i ON i.order_id = o.id
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end
+    HAVING COUNT(*) > 0;
+    SELECT COUNT(*) INTO v_orders
+    FROM "order" o
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end;
+    RETURN v_orders;
+END;
+';
+
+COMMIT;
@@ -1,7 +1,14 @@
 DROP VIEW IF EXISTS dashboard;
+DROP TABLE IF EXISTS product_sales_rollup;
+DROP TABLE IF EXISTS sales_rollup;
+DROP TABLE IF EXISTS dashboard_counters;
+DROP TABLE IF EXISTS outbox_event;
+DROP TABLE IF EXISTS order_submission;
 DROP TABLE IF EXISTS order_sequence;
 DROP TABLE IF EXISTS order_item;
 DROP TABLE IF EXISTS "order";
+DROP TABLE IF EXISTS stock_snapshot;
+DROP TABLE IF EXISTS stock_movement;
 DROP TABLE IF EXISTS product;
 DROP TABLE IF EXISTS category;
 DROP TABLE IF EXISTS customer;
@@ -9,6 +16,9 @@ DROP TABLE IF EXISTS password_reset_token;
 DROP TABLE IF EXISTS verification_token;
 DROP TABLE IF EXISTS "user";
 
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
 CREATE TABLE "user" (
     id BIGSERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
@@ -17,6 +27,8 @@ CREATE TABLE "user" (
     status VARCHAR(255) NOT NULL CHECK (status IN ('ACTIVE', 'DELETED', 'UNVERIFIED'))
 );
 
+ALTER SEQUENCE user_id_seq INCREMENT BY 50;
+
 CREATE TABLE verification_token (
     user_id BIGINT PRIMARY KEY REFERENCES "user"(id) ON DELETE CASCADE,
     token CHAR(36) NOT NULL UNIQUE,
@@ -59,16 +71,84 @@ CREATE TABLE category (
     UNIQUE(name, owner_id)
 );
 
+ALTER SEQUENCE category_id_seq INCREMENT BY 50;
+
+CREATE INDEX category_owner_id_name_trgm_idx ON category USING GIN (owner_id, name gin_trgm_ops);
+
 CREATE TABLE product (
     id BIGSERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
     category_id BIGINT REFERENCES category(id) ON DELETE SET NULL,
     quantity INTEGER NOT NULL CHECK (quantity >= 0),
     price DECIMAL(12, 2) NOT NULL CHECK (price >= 0.01),
+    name_modification_time TIMESTAMP NOT NULL DEFAULT clock_timestamp(),
     owner_id BIGINT NOT NULL REFERENCES "user"(id),
     UNIQUE(name, owner_id)
 );
 
+ALTER SEQUENCE product_id_seq INCREMENT BY 50;
+
+CREATE INDEX product_owner_id_name_trgm_idx ON product USING GIN (owner_id, name gin_trgm_ops);
+
+CREATE TABLE stock_movement (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    reason VARCHAR(255) NOT NULL CHECK (reason IN ('OPENING_BALANCE', 'PRODUCT_CREATED', 'PRODUCT_UPDATED', 'ORDER_CREATED', 'ORDER_UPDATED', 'ORDER_DELETED')),
+    order_id BIGINT,
+    quantity_change INTEGER NOT NULL,
+    creation_time TIMESTAMP NOT NULL DEFAULT clock_timestamp()
+);
+
+ALTER SEQUENCE stock_movement_id_seq INCREMENT BY 50;
+
+CREATE INDEX stock_movement_product_id_creation_time_idx ON stock_movement(product_id, creation_time);
+
+CREATE TABLE stock_snapshot (
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    snapshot_time TIMESTAMP NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (product_id, snapshot_time)
+);
+
+CREATE OR REPLACE FUNCTION stock_at(p_product_id BIGINT, p_time TIMESTAMP)
+    RETURNS INTEGER
+    STABLE
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_snapshot_time TIMESTAMP;
+    v_quantity INTEGER;
+BEGIN
+    SELECT ss.snapshot_time, ss.quantity INTO v_snapshot_time, v_quantity
+    FROM stock_snapshot ss
+    WHERE ss.product_id = p_product_id AND ss.snapshot_time <= p_time
+    ORDER BY ss.snapshot_time DESC
+    LIMIT 1;
+    RETURN COALESCE(v_quantity, 0) + COALESCE((
+        SELECT SUM(sm.quantity_change)
+        FROM stock_movement sm
+        WHERE sm.product_id = p_product_id
+            AND sm.creation_time >= COALESCE(v_snapshot_time, ''-infinity'')
+            AND sm.creation_time < p_time
+    ), 0);
+END;
+';
+
+CREATE OR REPLACE PROCEDURE create_stock_snapshots()
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_snapshot_time TIMESTAMP := date_trunc(''day'', LOCALTIMESTAMP - INTERVAL ''1 day'');
+BEGIN
+    INSERT INTO stock_snapshot (product_id, snapshot_time, quantity)
+    SELECT p.id, v_snapshot_time, stock_at(p.id, v_snapshot_time)
+    FROM product p
+    ON CONFLICT (product_id, snapshot_time) DO NOTHING;
+END;
+';
+
 CREATE TABLE customer (
     id BIGSERIAL PRIMARY KEY,
     name VARCHAR(255) NOT NULL,
@@ -78,57 +158,587 @@ CREATE TABLE customer (
     UNIQUE(name, owner_id)
 );
 
+ALTER SEQUENCE customer_id_seq INCREMENT BY 50;
+
+CREATE INDEX customer_owner_id_name_trgm_idx ON customer USING GIN (owner_id, name gin_trgm_ops);
+
 CREATE TABLE "order" (
     id BIGSERIAL PRIMARY KEY,
     number INTEGER NOT NULL,
     status VARCHAR(255) NOT NULL CHECK (status IN ('UNPAID', 'PAID')),
     "date" date NOT NULL DEFAULT CURRENT_DATE,
     customer_id BIGINT NOT NULL REFERENCES customer(id),
+    total_quantity INTEGER NOT NULL DEFAULT 0,
+    total_amount DECIMAL(12, 2) NOT NULL DEFAULT 0.00,
     owner_id BIGINT NOT NULL REFERENCES "user"(id),
+    modification_time TIMESTAMP NOT NULL DEFAULT clock_timestamp(),
     UNIQUE(number, owner_id)
 );
 
+ALTER SEQUENCE order_id_seq INCREMENT BY 50;
+
+CREATE INDEX order_owner_id_status_date_id_idx ON "order"(owner_id, status, "date", id);
+CREATE INDEX order_customer_id_status_idx ON "order"(customer_id, status);
+
 CREATE TABLE order_item (
     quantity INTEGER NOT NULL CHECK (quantity > 0),
     product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE RESTRICT,
     order_id BIGINT NOT NULL REFERENCES "order"(id) ON DELETE CASCADE,
     "index" INTEGER NOT NULL,
+    price DECIMAL(12, 2) NOT NULL CHECK (price >= 0.01),
     PRIMARY KEY (product_id, order_id)
 );
 
-CREATE OR REPLACE FUNCTION calculate_total_sales(p_owner_id BIGINT)
-    RETURNS DECIMAL(12, 2)
+CREATE OR REPLACE FUNCTION touch_order()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    NEW.modification_time := clock_timestamp();
+    RETURN NEW;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_modification_time_update_trigger
+    BEFORE UPDATE ON "order"
+    FOR EACH ROW
+    EXECUTE PROCEDURE touch_order();
+
+CREATE OR REPLACE FUNCTION touch_orders_of_changed_rows()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''INSERT'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n);
+    ELSIF TG_TABLE_NAME = ''order_item'' AND TG_OP = ''DELETE'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''order_item'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.id IN (SELECT n.order_id FROM new_rows n UNION SELECT d.order_id FROM old_rows d);
+    ELSIF TG_TABLE_NAME = ''customer'' THEN
+        UPDATE "order" o
+        SET modification_time = clock_timestamp()
+        WHERE o.customer_id IN (
+            SELECT n.id
+            FROM new_rows n
+            JOIN old_rows d ON d.id = n.id
+            WHERE (n.name, n.address, n.phone) IS DISTINCT FROM (d.name, d.address, d.phone)
+        );
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_insert_trigger
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_update_trigger
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER order_item_modification_time_delete_trigger
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE TRIGGER customer_modification_time_update_trigger
+    AFTER UPDATE ON customer
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE touch_orders_of_changed_rows();
+
+CREATE OR REPLACE FUNCTION touch_product_name()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    NEW.name_modification_time := clock_timestamp();
+    RETURN NEW;
+END;
+';
+
+CREATE OR REPLACE TRIGGER product_name_modification_time_update_trigger
+    BEFORE UPDATE OF name ON product
+    FOR EACH ROW
+    WHEN (OLD.name IS DISTINCT FROM NEW.name)
+    EXECUTE PROCEDURE touch_product_name();
+
+CREATE TABLE order_submission (
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    token VARCHAR(64) NOT NULL,
+    order_id BIGINT REFERENCES "order"(id) ON DELETE SET NULL,
+    submission_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (owner_id, token)
+);
+
+CREATE OR REPLACE PROCEDURE delete_expired_order_submissions()
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    DELETE FROM order_submission os
+    WHERE os.submission_time + INTERVAL ''24 hours'' < CURRENT_TIMESTAMP;
+END;
+';
+
+CREATE TABLE outbox_event (
+    id BIGSERIAL PRIMARY KEY,
+    type VARCHAR(255) NOT NULL CHECK (type IN ('ORDER_CREATED', 'ORDER_UPDATED', 'ORDER_DELETED', 'STOCK_CHANGED')),
+    aggregate_id BIGINT NOT NULL,
+    owner_id BIGINT NOT NULL,
+    payload TEXT NOT NULL,
+    creation_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    claim_time TIMESTAMP
+);
+
+ALTER SEQUENCE outbox_event_id_seq INCREMENT BY 50;
+
+CREATE TABLE dashboard_counters (
+    owner_id BIGINT PRIMARY KEY REFERENCES "user"(id) ON DELETE CASCADE,
+    total_customers BIGINT NOT NULL DEFAULT 0,
+    total_categories BIGINT NOT NULL DEFAULT 0,
+    total_products BIGINT NOT NULL DEFAULT 0,
+    total_unpaid_orders BIGINT NOT NULL DEFAULT 0,
+    total_paid_orders BIGINT NOT NULL DEFAULT 0,
+    total_sales DECIMAL(14, 2) NOT NULL DEFAULT 0.00
+);
+
+CREATE OR REPLACE FUNCTION create_dashboard_counters()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    INSERT INTO dashboard_counters (owner_id)
+    SELECT n.id FROM new_rows n
+    ON CONFLICT (owner_id) DO NOTHING;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER user_dashboard_counters_insert_trigger
+    AFTER INSERT ON "user"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE create_dashboard_counters();
+
+CREATE OR REPLACE FUNCTION count_dashboard_rows()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        UPDATE dashboard_counters d
+        SET total_customers = d.total_customers + CASE WHEN TG_TABLE_NAME = ''customer'' THEN r.count ELSE 0 END,
+            total_categories = d.total_categories + CASE WHEN TG_TABLE_NAME = ''category'' THEN r.count ELSE 0 END,
+            total_products = d.total_products + CASE WHEN TG_TABLE_NAME = ''product'' THEN r.count ELSE 0 END
+        FROM (SELECT n.owner_id, COUNT(*) AS count FROM new_rows n GROUP BY n.owner_id) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''DELETE'' THEN
+        UPDATE dashboard_counters d
+        SET total_customers = d.total_customers - CASE WHEN TG_TABLE_NAME = ''customer'' THEN r.count ELSE 0 END,
+            total_categories = d.total_categories - CASE WHEN TG_TABLE_NAME = ''category'' THEN r.count ELSE 0 END,
+            total_products = d.total_products - CASE WHEN TG_TABLE_NAME = ''product'' THEN r.count ELSE 0 END
+        FROM (SELECT o.owner_id, COUNT(*) AS count FROM old_rows o GROUP BY o.owner_id) r
+        WHERE d.owner_id = r.owner_id;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER customer_dashboard_counters_insert_trigger
+    AFTER INSERT ON customer
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER customer_dashboard_counters_delete_trigger
+    AFTER DELETE ON customer
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER category_dashboard_counters_insert_trigger
+    AFTER INSERT ON category
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER category_dashboard_counters_delete_trigger
+    AFTER DELETE ON category
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER product_dashboard_counters_insert_trigger
+    AFTER INSERT ON product
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE TRIGGER product_dashboard_counters_delete_trigger
+    AFTER DELETE ON product
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_rows();
+
+CREATE OR REPLACE FUNCTION count_dashboard_orders()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders + r.unpaid,
+            total_paid_orders = d.total_paid_orders + r.paid,
+            total_sales = d.total_sales + r.sales
+        FROM (
+            SELECT n.owner_id,
+                   COUNT(*) FILTER (WHERE n.status = ''UNPAID'') AS unpaid,
+                   COUNT(*) FILTER (WHERE n.status = ''PAID'') AS paid,
+                   COALESCE(SUM(n.total_amount) FILTER (WHERE n.status = ''PAID''), 0) AS sales
+            FROM new_rows n
+            GROUP BY n.owner_id
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''DELETE'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders - r.unpaid,
+            total_paid_orders = d.total_paid_orders - r.paid,
+            total_sales = d.total_sales - r.sales
+        FROM (
+            SELECT o.owner_id,
+                   COUNT(*) FILTER (WHERE o.status = ''UNPAID'') AS unpaid,
+                   COUNT(*) FILTER (WHERE o.status = ''PAID'') AS paid,
+                   COALESCE(SUM(o.total_amount) FILTER (WHERE o.status = ''PAID''), 0) AS sales
+            FROM old_rows o
+            GROUP BY o.owner_id
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        UPDATE dashboard_counters d
+        SET total_unpaid_orders = d.total_unpaid_orders + r.unpaid,
+            total_paid_orders = d.total_paid_orders + r.paid,
+            total_sales = d.total_sales + r.sales
+        FROM (
+            SELECT c.owner_id, SUM(c.unpaid) AS unpaid, SUM(c.paid) AS paid, SUM(c.sales) AS sales
+            FROM (
+                SELECT n.owner_id,
+                       CASE WHEN n.status = ''UNPAID'' THEN 1 ELSE 0 END AS unpaid,
+                       CASE WHEN n.status = ''PAID'' THEN 1 ELSE 0 END AS paid,
+                       CASE WHEN n.status = ''PAID'' THEN n.total_amount ELSE 0 END AS sales
+                FROM new_rows n
+                UNION ALL
+                SELECT o.owner_id,
+                       CASE WHEN o.status = ''UNPAID'' THEN -1 ELSE 0 END,
+                       CASE WHEN o.status = ''PAID'' THEN -1 ELSE 0 END,
+                       CASE WHEN o.status = ''PAID'' THEN -o.total_amount ELSE 0 END
+                FROM old_rows o
+            ) c
+            GROUP BY c.owner_id
+            HAVING SUM(c.unpaid) <> 0 OR SUM(c.paid) <> 0 OR SUM(c.sales) <> 0
+        ) r
+        WHERE d.owner_id = r.owner_id;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_insert_trigger
+    AFTER INSERT ON "order"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_update_trigger
+    AFTER UPDATE ON "order"
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+CREATE OR REPLACE TRIGGER order_dashboard_counters_delete_trigger
+    AFTER DELETE ON "order"
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE count_dashboard_orders();
+
+CREATE TABLE sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    period VARCHAR(255) NOT NULL CHECK (period IN ('DAY', 'MONTH')),
+    bucket DATE NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(owner_id, period, bucket)
+);
+
+CREATE TABLE product_sales_rollup (
+    id BIGSERIAL PRIMARY KEY,
+    owner_id BIGINT NOT NULL REFERENCES "user"(id) ON DELETE CASCADE,
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    period VARCHAR(255) NOT NULL CHECK (period IN ('DAY', 'MONTH')),
+    bucket DATE NOT NULL,
+    amount DECIMAL(14, 2) NOT NULL DEFAULT 0.00,
+    units BIGINT NOT NULL DEFAULT 0,
+    orders BIGINT NOT NULL DEFAULT 0,
+    UNIQUE(product_id, period, bucket)
+);
+
+CREATE INDEX product_sales_rollup_owner_id_period_bucket_idx ON product_sales_rollup(owner_id, period, bucket);
+
+CREATE OR REPLACE FUNCTION sales_rollup_lock_key(p_owner_id BIGINT, p_day DATE)
+    RETURNS INTEGER
+    LANGUAGE SQL
     IMMUTABLE
+AS
+'
+    SELECT hashtext(''sales_rollup:'' || p_owner_id || '':'' || (EXTRACT(YEAR FROM p_day) * 12 + EXTRACT(MONTH FROM p_day)));
+';
+
+CREATE OR REPLACE FUNCTION add_sales_rollup(p_owner_ids BIGINT[], p_days DATE[], p_amounts DECIMAL[], p_units INTEGER[], p_orders INTEGER[])
+    RETURNS VOID
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    PERFORM pg_advisory_xact_lock_shared(l.lock_key)
+    FROM (SELECT DISTINCT sales_rollup_lock_key(d.owner_id, d.day) AS lock_key FROM unnest(p_owner_ids, p_days) AS d(owner_id, day) ORDER BY 1) l;
+    INSERT INTO sales_rollup AS r (owner_id, period, bucket, amount, units, orders)
+    SELECT d.owner_id,
+           p.period,
+           CASE WHEN p.period = ''MONTH'' THEN date_trunc(''month'', d.day)::DATE ELSE d.day END,
+           SUM(d.amount),
+           SUM(d.units),
+           SUM(d.orders)
+    FROM unnest(p_owner_ids, p_days, p_amounts, p_units, p_orders) AS d(owner_id, day, amount, units, orders)
+    CROSS JOIN (VALUES (''DAY''), (''MONTH'')) AS p(period)
+    GROUP BY 1, 2, 3
+    HAVING SUM(d.amount) <> 0 OR SUM(d.units) <> 0 OR SUM(d.orders) <> 0
+    ON CONFLICT (owner_id, period, bucket) DO UPDATE
+    SET amount = r.amount + EXCLUDED.amount,
+        units = r.units + EXCLUDED.units,
+        orders = r.orders + EXCLUDED.orders;
+END;
+';
+
+CREATE OR REPLACE FUNCTION add_product_sales_rollup(p_owner_ids BIGINT[], p_product_ids BIGINT[], p_days DATE[], p_amounts DECIMAL[], p_units INTEGER[], p_orders INTEGER[])
+    RETURNS VOID
     LANGUAGE PLPGSQL
 AS
 '
-DECLARE
-    v_total DECIMAL(12, 2);
 BEGIN
-   SELECT SUM(p.price * oi.quantity)
-   INTO v_total
-   FROM order_item oi
-   INNER JOIN product p
-   ON oi.product_id = p.id
-   INNER JOIN "order" o
-   ON oi.order_id = o.id
-   WHERE o.status = ''PAID'' AND o.owner_id = p_owner_id;
+    PERFORM pg_advisory_xact_lock_shared(l.lock_key)
+    FROM (SELECT DISTINCT sales_rollup_lock_key(d.owner_id, d.day) AS lock_key FROM unnest(p_owner_ids, p_days) AS d(owner_id, day) ORDER BY 1) l;
+    INSERT INTO product_sales_rollup AS r (owner_id, product_id, period, bucket, amount, units, orders)
+    SELECT d.owner_id,
+           d.product_id,
+           p.period,
+           CASE WHEN p.period = ''MONTH'' THEN date_trunc(''month'', d.day)::DATE ELSE d.day END,
+           SUM(d.amount),
+           SUM(d.units),
+           SUM(d.orders)
+    FROM unnest(p_owner_ids, p_product_ids, p_days, p_amounts, p_units, p_orders) AS d(owner_id, product_id, day, amount, units, orders)
+    CROSS JOIN (VALUES (''DAY''), (''MONTH'')) AS p(period)
+    GROUP BY 1, 2, 3, 4
+    HAVING SUM(d.amount) <> 0 OR SUM(d.units) <> 0 OR SUM(d.orders) <> 0
+    ON CONFLICT (product_id, period, bucket) DO UPDATE
+    SET amount = r.amount + EXCLUDED.amount,
+        units = r.units + EXCLUDED.units,
+        orders = r.orders + EXCLUDED.orders;
+END;
+';
 
-   RETURN COALESCE(v_total, 0.00);
+CREATE OR REPLACE FUNCTION roll_up_order_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        PERFORM add_sales_rollup(array_agg(n.owner_id), array_agg(n."date"), array_agg(n.total_amount), array_agg(n.total_quantity), array_agg(1))
+        FROM new_rows n
+        WHERE n.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM add_sales_rollup(array_agg(o.owner_id), array_agg(o."date"), array_agg(-o.total_amount), array_agg(-o.total_quantity), array_agg(-1))
+        FROM old_rows o
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        PERFORM add_sales_rollup(array_agg(c.owner_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT n.owner_id, n."date", n.total_amount, n.total_quantity, 1
+            FROM new_rows n
+            WHERE n.status = ''PAID''
+            UNION ALL
+            SELECT o.owner_id, o."date", -o.total_amount, -o.total_quantity, -1
+            FROM old_rows o
+            WHERE o.status = ''PAID''
+        ) c(owner_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+        PERFORM add_product_sales_rollup(array_agg(c.owner_id), array_agg(c.product_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT n.owner_id, i.product_id, n."date", i.price * i.quantity, i.quantity, 1
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            JOIN order_item i ON i.order_id = n.id
+            WHERE n.status = ''PAID'' AND (o.status <> n.status OR o."date" <> n."date")
+            UNION ALL
+            SELECT o.owner_id, i.product_id, o."date", -(i.price * i.quantity), -i.quantity, -1
+            FROM new_rows n
+            JOIN old_rows o ON o.id = n.id
+            JOIN order_item i ON i.order_id = o.id
+            WHERE o.status = ''PAID'' AND (o.status <> n.status OR o."date" <> n."date")
+        ) c(owner_id, product_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN NULL;
 END;
 ';
 
-CREATE VIEW dashboard AS
-    SELECT
-        (SELECT COUNT(id) FROM customer WHERE owner_id = u.id) AS total_customers,
-        (SELECT COUNT(id) FROM category WHERE owner_id = u.id) AS total_categories,
-        (SELECT COUNT(id) FROM product WHERE owner_id = u.id) AS total_products,
-        (SELECT COUNT(id) FROM "order" WHERE status = 'UNPAID' AND owner_id = u.id) AS total_unpaid_orders,
-        (SELECT COUNT(id) FROM "order" WHERE status = 'PAID' AND owner_id = u.id) AS total_paid_orders,
-        (SELECT calculate_total_sales(u.id)) AS total_sales,
-        u.id AS owner_id
-    FROM
-        "user" u;
+CREATE OR REPLACE TRIGGER order_sales_rollup_insert_trigger
+    AFTER INSERT ON "order"
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_update_trigger
+    AFTER UPDATE ON "order"
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_delete_trigger
+    AFTER DELETE ON "order"
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_sales();
+
+CREATE OR REPLACE FUNCTION roll_up_deleted_order_item_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF OLD.status = ''PAID'' THEN
+        PERFORM add_product_sales_rollup(array_agg(OLD.owner_id), array_agg(i.product_id), array_agg(OLD."date"), array_agg(-(i.price * i.quantity)), array_agg(-i.quantity), array_agg(-1))
+        FROM order_item i
+        WHERE i.order_id = OLD.id
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN OLD;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_sales_rollup_cascade_trigger
+    BEFORE DELETE ON "order"
+    FOR EACH ROW
+    EXECUTE PROCEDURE roll_up_deleted_order_item_sales();
+
+CREATE OR REPLACE FUNCTION roll_up_order_item_sales()
+    RETURNS TRIGGER
+    LANGUAGE PLPGSQL
+AS
+'
+BEGIN
+    IF TG_OP = ''INSERT'' THEN
+        PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(n.product_id), array_agg(o."date"), array_agg(n.price * n.quantity), array_agg(n.quantity), array_agg(1))
+        FROM new_rows n
+        JOIN "order" o ON o.id = n.order_id
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''DELETE'' THEN
+        PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(d.product_id), array_agg(o."date"), array_agg(-(d.price * d.quantity)), array_agg(-d.quantity), array_agg(-1))
+        FROM old_rows d
+        JOIN "order" o ON o.id = d.order_id
+        WHERE o.status = ''PAID''
+        HAVING COUNT(*) > 0;
+    ELSIF TG_OP = ''UPDATE'' THEN
+        PERFORM add_product_sales_rollup(array_agg(c.owner_id), array_agg(c.product_id), array_agg(c.day), array_agg(c.amount), array_agg(c.units), array_agg(c.orders))
+        FROM (
+            SELECT o.owner_id, n.product_id, o."date", n.price * n.quantity, n.quantity, 1
+            FROM new_rows n
+            JOIN "order" o ON o.id = n.order_id
+            WHERE o.status = ''PAID''
+            UNION ALL
+            SELECT o.owner_id, d.product_id, o."date", -(d.price * d.quantity), -d.quantity, -1
+            FROM old_rows d
+            JOIN "order" o ON o.id = d.order_id
+            WHERE o.status = ''PAID''
+        ) c(owner_id, product_id, day, amount, units, orders)
+        HAVING COUNT(*) > 0;
+    END IF;
+    RETURN NULL;
+END;
+';
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_insert_trigger
+    AFTER INSERT ON order_item
+    REFERENCING NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_update_trigger
+    AFTER UPDATE ON order_item
+    REFERENCING OLD TABLE AS old_rows NEW TABLE AS new_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE TRIGGER order_item_sales_rollup_delete_trigger
+    AFTER DELETE ON order_item
+    REFERENCING OLD TABLE AS old_rows
+    FOR EACH STATEMENT
+    EXECUTE PROCEDURE roll_up_order_item_sales();
+
+CREATE OR REPLACE FUNCTION rebuild_sales_rollups(p_owner_id BIGINT, p_month DATE)
+    RETURNS INTEGER
+    LANGUAGE PLPGSQL
+    VOLATILE
+AS
+'
+DECLARE
+    v_start DATE := date_trunc(''month'', p_month)::DATE;
+    v_end DATE := (date_trunc(''month'', p_month) + INTERVAL ''1 month'')::DATE;
+    v_orders INTEGER;
+BEGIN
+    PERFORM pg_advisory_xact_lock(sales_rollup_lock_key(p_owner_id, v_start));
+    DELETE FROM sales_rollup r
+    WHERE r.owner_id = p_owner_id AND r.bucket >= v_start AND r.bucket < v_end;
+    DELETE FROM product_sales_rollup r
+    WHERE r.owner_id = p_owner_id AND r.bucket >= v_start AND r.bucket < v_end;
+    PERFORM add_sales_rollup(array_agg(o.owner_id), array_agg(o."date"), array_agg(o.total_amount), array_agg(o.total_quantity), array_agg(1))
+    FROM "order" o
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end
+    HAVING COUNT(*) > 0;
+    PERFORM add_product_sales_rollup(array_agg(o.owner_id), array_agg(i.product_id), array_agg(o."date"), array_agg(i.price * i.quantity), array_agg(i.quantity), array_agg(1))
+    FROM "order" o
+    JOIN order_item i ON i.order_id = o.id
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end
+    HAVING COUNT(*) > 0;
+    SELECT COUNT(*) INTO v_orders
+    FROM "order" o
+    WHERE o.owner_id = p_owner_id AND o.status = ''PAID'' AND o."date" >= v_start AND o."date" < v_end;
+    RETURN v_orders;
+END;
+';
 
 CREATE TABLE order_sequence (
     owner_id BIGINT PRIMARY KEY REFERENCES "user"(id) ON DELETE CASCADE,
@@ -153,13 +763,33 @@ BEGIN
 END;
 ';
 
+CREATE OR REPLACE FUNCTION reserve_order_numbers(p_owner_id BIGINT, p_count INTEGER)
+    RETURNS INTEGER
+    LANGUAGE PLPGSQL
+    VOLATILE
+AS
+'
+DECLARE
+    v_counter INTEGER;
+BEGIN
+    INSERT INTO order_sequence(owner_id, counter)
+    VALUES (p_owner_id, p_count)
+    ON CONFLICT(owner_id)
+    DO UPDATE SET counter = order_sequence.counter + p_count
+    RETURNING counter INTO v_counter;
+    RETURN v_counter;
+END;
+';
+
 CREATE OR REPLACE FUNCTION generate_order_number()
     RETURNS TRIGGER
     LANGUAGE PLPGSQL
 AS
 '
 BEGIN
-    NEW.number := next_order_number(NEW.owner_id);
+    IF NEW.number IS NULL THEN
+        NEW.number := next_order_number(NEW.owner_id);
+    END IF;
     RETURN NEW;
 END;
 ';
@@ -0,0 +1,19 @@
+BEGIN;
+
+ALTER TABLE stock_movement ALTER COLUMN creation_time SET DEFAULT clock_timestamp();
+
+CREATE OR REPLACE PROCEDURE create_stock_snapshots()
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_snapshot_time TIMESTAMP := date_trunc(''day'', LOCALTIMESTAMP - INTERVAL ''1 day'');
+BEGIN
+    INSERT INTO stock_snapshot (product_id, snapshot_time, quantity)
+    SELECT p.id, v_snapshot_time, stock_at(p.id, v_snapshot_time)
+    FROM product p
+    ON CONFLICT (product_id, snapshot_time) DO NOTHING;
+END;
+';
+
+COMMIT;
@@ -0,0 +1,61 @@
+CREATE TABLE stock_movement (
+    id BIGSERIAL PRIMARY KEY,
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    reason VARCHAR(255) NOT NULL CHECK (reason IN ('OPENING_BALANCE', 'PRODUCT_CREATED', 'PRODUCT_UPDATED', 'ORDER_CREATED', 'ORDER_UPDATED', 'ORDER_DELETED')),
+    order_id BIGINT,
+    quantity_change INTEGER NOT NULL,
+    creation_time TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);
+
+ALTER SEQUENCE stock_movement_id_seq INCREMENT BY 50;
+
+CREATE INDEX stock_movement_product_id_creation_time_idx ON stock_movement(product_id, creation_time);
+
+CREATE TABLE stock_snapshot (
+    product_id BIGINT NOT NULL REFERENCES product(id) ON DELETE CASCADE,
+    snapshot_time TIMESTAMP NOT NULL,
+    quantity INTEGER NOT NULL,
+    PRIMARY KEY (product_id, snapshot_time)
+);
+
+CREATE OR REPLACE FUNCTION stock_at(p_product_id BIGINT, p_time TIMESTAMP)
+    RETURNS INTEGER
+    STABLE
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_snapshot_time TIMESTAMP;
+    v_quantity INTEGER;
+BEGIN
+    SELECT ss.snapshot_time, ss.quantity INTO v_snapshot_time, v_quantity
+    FROM stock_snapshot ss
+    WHERE ss.product_id = p_product_id AND ss.snapshot_time <= p_time
+    ORDER BY ss.snapshot_time DESC
+    LIMIT 1;
+    RETURN COALESCE(v_quantity, 0) + COALESCE((
+        SELECT SUM(sm.quantity_change)
+        FROM stock_movement sm
+        WHERE sm.product_id = p_product_id
+            AND sm.creation_time >= COALESCE(v_snapshot_time, ''-infinity'')
+            AND sm.creation_time < p_time
+    ), 0);
+END;
+';
+
+CREATE OR REPLACE PROCEDURE create_stock_snapshots()
+    LANGUAGE PLPGSQL
+AS
+'
+DECLARE
+    v_snapshot_time TIMESTAMP := date_trunc(''day'', LOCALTIMESTAMP);
+BEGIN
+    INSERT INTO stock_snapshot (product_id, snapshot_time, quantity)
+    SELECT p.id, v_snapshot_time, stock_at(p.id, v_snapshot_time)
+    FROM product p
+    ON CONFLICT (product_id, snapshot_time) DO NOTHING;
+END;
+';
+
+INSERT INTO stock_movement (product_id, reason, quantity_change)
+SELECT p.id, 'OPENING_BALANCE', p.quantity FROM product p;
@@ -0,0 +1,7 @@
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+CREATE EXTENSION IF NOT EXISTS btree_gin;
+
+CREATE INDEX CONCURRENTLY IF NOT EXISTS category_owner_id_name_trgm_idx ON category USING GIN (owner_id, name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS product_owner_id_name_trgm_idx ON product USING GIN (owner_id, name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS customer_owner_id_name_trgm_idx ON customer USING GIN (owner_id, name gin_trgm_ops);
+CREATE INDEX CONCURRENTLY IF NOT EXISTS order_customer_id_status_idx ON "order"(customer_id, status);
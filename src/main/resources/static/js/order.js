@@ -1,10 +1,16 @@
-function order(items) {
+function order(items, products, customer, options) {
 
-  function createItem(item = { productId: "", quantity: "" }) {
+  const productsById = new Map(products.map(product => [String(product.id), product]));
+
+  function createItem(item = { productId: "", quantity: "", price: null }) {
+    const product = productsById.get(String(item.productId));
+    const storedPrice = item.price != null && item.price !== "";
     return {
-      productId: item.productId,
-      price: "",
+      productId: product ? product.id : "",
+      productName: product ? product.name : "",
+      price: storedPrice ? item.price : product ? product.price : "",
       quantity: item.quantity,
+      suggestions: [],
       get amount() {
         const amount = this.price * this.quantity;
         return amount || "";
@@ -12,15 +18,45 @@ function order(items) {
     };
   }
 
+  async function suggest(url, query) {
+    const response = await fetch(`${url}?query=${encodeURIComponent(query)}`, {
+      headers: { Accept: "application/json" }
+    });
+    return response.ok ? response.json() : [];
+  }
+
   return {
+    options,
     items: items ? items.map(item => createItem(item)) : [createItem()],
+    customer: {
+      id: customer ? customer.id : "",
+      name: customer ? customer.name : "",
+      suggestions: []
+    },
+    async searchCustomers() {
+      this.customer.id = "";
+      this.customer.suggestions = await suggest(options.customersUrl, this.customer.name);
+    },
+    selectCustomer(suggestion) {
+      this.customer.id = suggestion.id;
+      this.customer.name = suggestion.name;
+      this.customer.suggestions = [];
+    },
     addItem() {
       this.items.push(createItem());
     },
-    editItem(index, option) {
+    async searchProducts(index) {
+      const item = this.items[index];
+      item.productId = "";
+      item.price = "";
+      item.suggestions = await suggest(options.productsUrl, item.productName);
+    },
+    editItem(index, product) {
       const item = this.items[index];
-      item.productId = option.value;
-      item.price = option.dataset.price;
+      item.productId = product.id;
+      item.productName = product.name;
+      item.price = product.price;
+      item.suggestions = [];
       if (item.quantity === "") item.quantity = 1;
     },
     removeItem(index) {
@@ -43,4 +79,4 @@ function order(items) {
         .reduce((prev, next) => prev + next);
     }
   };
-}
\ No newline at end of file
+}
@@ -15,7 +15,9 @@ import com.epsum.epsumstock.category.CategoryNameTakenException;
 import com.epsum.epsumstock.category.CategoryNotFoundException;
 import com.epsum.epsumstock.category.CategoryRepository;
 import com.epsum.epsumstock.category.CategoryService;
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
 import java.util.List;
 import java.util.Optional;
@@ -34,6 +36,9 @@ class CategoryServiceTest {
     @Mock
     private CategoryRepository categoryRepository;
 
+    @Mock
+    private DashboardCache dashboardCache;
+
     private final User user = new User();
 
     @Nested
@@ -49,6 +54,7 @@ class CategoryServiceTest {
             // then
             assertThat(category.getOwner()).isEqualTo(user);
             verify(categoryRepository, times(1)).save(category);
+            verify(dashboardCache, times(1)).invalidateAfterCommit(user);
         }
 
         @Test
@@ -99,6 +105,16 @@ class CategoryServiceTest {
             assertThat(actualCategories).usingRecursiveComparison().isEqualTo(expectedCategories);
         }
 
+        @Test
+        void findCategoriesEscapesWildcards() {
+            // given
+            when(categoryRepository.searchByName("%!%a!_b!!%", "%a_b!", user, Search.LIMIT)).thenReturn(List.of());
+            // when
+            var actualCategories = categoryService.findCategories("%a_b!", user);
+            // then
+            assertThat(actualCategories).isEmpty();
+        }
+
     }
 
     @Nested
@@ -108,7 +124,7 @@ class CategoryServiceTest {
         void findCategories() {
             // given
             var expectedCategories = List.of(new Category("A"), new Category("Aa"));
-            when(categoryRepository.findAllByNameContainingIgnoreCaseAndOwner("A", user)).thenReturn(expectedCategories);
+            when(categoryRepository.searchByName("%A%", "A", user, Search.LIMIT)).thenReturn(expectedCategories);
             // when
             var actualCategories = categoryService.findCategories("A", user);
             // then
@@ -202,6 +218,7 @@ class CategoryServiceTest {
             categoryService.deleteCategory(1L, user);
             // then
             verify(categoryRepository, times(1)).deleteById(1L);
+            verify(dashboardCache, times(1)).invalidateAfterCommit(user);
         }
 
         @Test
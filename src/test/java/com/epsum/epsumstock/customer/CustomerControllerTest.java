@@ -42,6 +42,9 @@ class CustomerControllerTest {
     @MockBean
     private CustomerService customerService;
 
+    @MockBean
+    private CustomerTypeahead customerTypeahead;
+
     @MockBean
     private CsvConverter csvMapper;
 
@@ -220,6 +223,34 @@ class CustomerControllerTest {
 
     }
 
+    @Nested
+    class SuggestCustomersTests {
+
+        @Test
+        void suggestCustomers() throws Exception {
+            // given
+            var suggestions = List.of(
+                    new CustomerSuggestion(1L, "A"),
+                    new CustomerSuggestion(2L, "Ab")
+            );
+            when(customerTypeahead.suggest(anyString(), any(User.class))).thenReturn(suggestions);
+            // when
+            var result = client.perform(get("/customers/suggestions")
+                    .param("query", "a")
+            );
+            // then
+            result.andExpectAll(
+                    status().isOk(),
+                    jsonPath("$[0].id").value(1),
+                    jsonPath("$[0].name").value("A"),
+                    jsonPath("$[1].id").value(2),
+                    jsonPath("$[1].name").value("Ab")
+            );
+            verify(customerTypeahead, times(1)).suggest(eq("a"), any(User.class));
+        }
+
+    }
+
     @Nested
     class UpdateCustomerTests {
 
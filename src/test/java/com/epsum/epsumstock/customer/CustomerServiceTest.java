@@ -16,8 +16,10 @@ import com.epsum.epsumstock.customer.CustomerNameTakenException;
 import com.epsum.epsumstock.customer.CustomerNotFoundException;
 import com.epsum.epsumstock.customer.CustomerRepository;
 import com.epsum.epsumstock.customer.CustomerService;
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.order.OrderRepository;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
 import java.util.List;
 import java.util.Optional;
@@ -38,6 +40,12 @@ class CustomerServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private CustomerTypeahead customerTypeahead;
+
+    @Mock
+    private DashboardCache dashboardCache;
+
     private final User user = new User();
 
     @Nested
@@ -53,6 +61,7 @@ class CustomerServiceTest {
             // then
             assertThat(customer.getOwner()).isEqualTo(user);
             verify(customerRepository, times(1)).save(customer);
+            verify(dashboardCache, times(1)).invalidateAfterCommit(user);
         }
 
         @Test
@@ -146,7 +155,7 @@ class CustomerServiceTest {
                     new Customer("A", "A", "A"),
                     new Customer("Aa", "Aa", "Aa")
             );
-            when(customerRepository.findAllByNameContainingIgnoreCaseAndOwner("A", user)).thenReturn(expectedCustomers);
+            when(customerRepository.searchByName("%A%", "A", user, Search.LIMIT)).thenReturn(expectedCustomers);
             // when
             var actualCustomers = customerService.findCustomers("A", user);
             // then
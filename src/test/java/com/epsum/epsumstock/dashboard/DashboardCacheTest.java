@@ -0,0 +1,114 @@
+package com.epsum.epsumstock.dashboard;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class DashboardCacheTest {
+
+    @Mock
+    private DashboardRepository dashboardRepository;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DashboardCache dashboardCache;
+
+    private final User user = new User(1L, "user", "user@email.com", "password");
+    private final Dashboard dashboard = new Dashboard();
+    private final Dashboard updatedDashboard = new Dashboard();
+
+    @BeforeEach
+    void setup() {
+        dashboardCache = new DashboardCache(dashboardRepository, meterRegistry, 1, Duration.ofMillis(100), Duration.ofMinutes(5));
+    }
+
+    @AfterEach
+    void teardown() {
+        dashboardCache.shutdown();
+    }
+
+    @Nested
+    class GetTests {
+
+        @Test
+        void getLoadsDashboardOnceAndRecordsHitsAndMisses() {
+            // given
+            when(dashboardRepository.findById(1L)).thenReturn(Optional.of(dashboard));
+            // when
+            dashboardCache.get(user);
+            var cachedDashboard = dashboardCache.get(user);
+            // then
+            assertThat(cachedDashboard).isSameAs(dashboard);
+            verify(dashboardRepository, times(1)).findById(1L);
+            assertThat(meterRegistry.get("dashboard.cache.hits").counter().count()).isEqualTo(1);
+            assertThat(meterRegistry.get("dashboard.cache.misses").counter().count()).isEqualTo(1);
+        }
+
+        @Test
+        void getReloadsDashboardAfterInvalidation() {
+            // given
+            when(dashboardRepository.findById(1L)).thenReturn(Optional.of(dashboard), Optional.of(updatedDashboard));
+            dashboardCache.get(user);
+            // when
+            dashboardCache.invalidateAfterCommit(user);
+            var reloadedDashboard = dashboardCache.get(user);
+            // then
+            assertThat(reloadedDashboard).isSameAs(updatedDashboard);
+            verify(dashboardRepository, times(2)).findById(1L);
+        }
+
+        @Test
+        void getServesStaleDashboardWhileSingleRefreshIsRunning() throws InterruptedException {
+            // given
+            var release = new CountDownLatch(1);
+            when(dashboardRepository.findById(1L))
+                    .thenReturn(Optional.of(dashboard))
+                    .thenAnswer(invocation -> {
+                        release.await();
+                        return Optional.of(updatedDashboard);
+                    });
+            dashboardCache.get(user);
+            dashboardCache.invalidateAfterCommit(user);
+            // when
+            var firstDashboard = dashboardCache.get(user);
+            var secondDashboard = dashboardCache.get(user);
+            release.countDown();
+            // then
+            assertThat(firstDashboard).isSameAs(dashboard);
+            assertThat(secondDashboard).isSameAs(dashboard);
+            assertThat(meterRegistry.get("dashboard.cache.stale").counter().count()).isEqualTo(2);
+            verify(dashboardRepository, timeout(1000).times(2)).findById(1L);
+            assertThat(dashboardCache.get(user)).isSameAs(updatedDashboard);
+        }
+
+    }
+
+    @Nested
+    class InvalidateAfterCommitTests {
+
+        @Test
+        void invalidateAfterCommitIgnoresOwnersWithoutCachedDashboard() {
+            // when
+            dashboardCache.invalidateAfterCommit(user);
+            // then
+            verifyNoInteractions(dashboardRepository);
+        }
+
+    }
+
+}
@@ -1,5 +1,6 @@
 package com.epsum.epsumstock.dashboard;
 
+import org.hamcrest.Matcher;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
@@ -17,6 +18,7 @@ import com.epsum.epsumstock.category.Category;
 import com.epsum.epsumstock.category.CategoryRepository;
 import com.epsum.epsumstock.customer.Customer;
 import com.epsum.epsumstock.customer.CustomerRepository;
+import com.epsum.epsumstock.order.Order;
 import com.epsum.epsumstock.order.OrderBuilder;
 import com.epsum.epsumstock.order.OrderRepository;
 import com.epsum.epsumstock.order.OrderStatus;
@@ -26,6 +28,7 @@ import com.epsum.epsumstock.user.User;
 import com.epsum.epsumstock.user.UserRepository;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
 import java.util.List;
 
 import static org.hamcrest.Matchers.*;
@@ -57,15 +60,21 @@ class DashboardEndpointsTests {
     @Autowired
     private UserRepository userRepository;
 
+    @Autowired
+    private SalesRollupRebuilder salesRollupRebuilder;
+
+    private User user;
+    private List<Order> orders;
+
     @BeforeEach
     void setup() {
-        var user = userRepository.save(new User("user", "user@email.com", "$2a$10$gYCEDfFbidA3IInCfzcXdugclrYR/6FbQuogN7Ixc3ohWi90MEXiO"));
+        user = userRepository.save(new User("user", "user@email.com", "$2a$10$gYCEDfFbidA3IInCfzcXdugclrYR/6FbQuogN7Ixc3ohWi90MEXiO"));
         var customerA = customerRepository.save(new Customer("A", "A", "A", user));
         var customerB = customerRepository.save(new Customer("B", "B", "B", user));
         var productA = productRepository.save(new Product("A", categoryRepository.save(new Category("A", user)), 10, "1.00", user));
         var productB = productRepository.save(new Product("B", categoryRepository.save(new Category("B", user)), 20, "2.00", user));
         var productC = productRepository.save(new Product("C", categoryRepository.save(new Category("C", user)), 30, "3.00", user));
-        orderRepository.saveAll(List.of(
+        orders = orderRepository.saveAll(List.of(
                 new OrderBuilder()
                         .status(OrderStatus.UNPAID)
                         .customer(customerA)
@@ -118,4 +127,119 @@ class DashboardEndpointsTests {
         );
     }
 
+    @Test
+    void retrieveDashboardAfterChanges() throws Exception {
+        // given
+        customerRepository.save(new Customer("C", "C", "C", user));
+        orderRepository.delete(orders.get(0));
+        var order = orders.get(1);
+        order.setStatus(OrderStatus.UNPAID);
+        orderRepository.save(order);
+        // when
+        var result = client.perform(get("/dashboard"));
+        // then
+        result.andExpectAll(
+                status().isOk(),
+                model().attribute("dashboard", is(allOf(
+                        hasProperty("totalCustomers", is(3L)),
+                        hasProperty("totalCategories", is(3L)),
+                        hasProperty("totalProducts", is(3L)),
+                        hasProperty("totalUnpaidOrders", is(1L)),
+                        hasProperty("totalPaidOrders", is(1L)),
+                        hasProperty("totalSales", is(new BigDecimal("17.00")))
+                ))),
+                view().name("dashboard/dashboard")
+        );
+    }
+
+    @Test
+    void retrieveSalesReport() throws Exception {
+        // when
+        var result = client.perform(get("/dashboard/sales"));
+        // then
+        result.andExpectAll(
+                status().isOk(),
+                model().attribute("report", is(allOf(
+                        hasProperty("buckets", hasSize(30)),
+                        hasProperty("buckets", hasItem(sales(LocalDate.now(), "36.00", 18L, 2L))),
+                        hasProperty("products", contains(
+                                productSales("B", "16.00", 8L, 1L),
+                                productSales("C", "15.00", 5L, 1L),
+                                productSales("A", "5.00", 5L, 2L)
+                        )),
+                        hasProperty("categories", contains(
+                                hasProperty("categoryName", is("B")),
+                                hasProperty("categoryName", is("C")),
+                                hasProperty("categoryName", is("A"))
+                        ))
+                ))),
+                view().name("dashboard/sales-report")
+        );
+    }
+
+    @Test
+    void retrieveSalesReportAfterChanges() throws Exception {
+        // given
+        var order = orders.get(0);
+        order.setStatus(OrderStatus.PAID);
+        orderRepository.save(order);
+        orderRepository.delete(orders.get(2));
+        // when
+        var result = client.perform(get("/dashboard/sales").param("period", "MONTH"));
+        // then
+        result.andExpectAll(
+                status().isOk(),
+                model().attribute("report", is(allOf(
+                        hasProperty("buckets", hasSize(12)),
+                        hasProperty("buckets", hasItem(sales(LocalDate.now().withDayOfMonth(1), "44.00", 26L, 2L))),
+                        hasProperty("products", contains(
+                                productSales("B", "36.00", 18L, 2L),
+                                productSales("A", "8.00", 8L, 2L)
+                        ))
+                ))),
+                view().name("dashboard/sales-report")
+        );
+    }
+
+    @Test
+    void retrieveSalesReportAfterRebuild() throws Exception {
+        // given
+        salesRollupRebuilder.rebuild(LocalDate.now(), LocalDate.now());
+        // when
+        var result = client.perform(get("/dashboard/sales"));
+        // then
+        result.andExpectAll(
+                status().isOk(),
+                model().attribute("report", hasProperty("buckets", hasItem(sales(LocalDate.now(), "36.00", 18L, 2L))))
+        );
+    }
+
+    @Test
+    void doNotRetrieveSalesReportWithInvalidRange() throws Exception {
+        // when
+        var result = client.perform(get("/dashboard/sales")
+                .param("start-date", "2024-02-01")
+                .param("end-date", "2024-01-01"));
+        // then
+        result.andExpect(status().isBadRequest());
+    }
+
+    private Matcher<Object> sales(LocalDate bucket, String amount, Long units, Long orders) {
+        return allOf(
+                hasProperty("bucket", is(bucket)),
+                hasProperty("amount", is(new BigDecimal(amount))),
+                hasProperty("units", is(units)),
+                hasProperty("orders", is(orders))
+        );
+    }
+
+    private Matcher<Object> productSales(String productName, String amount, Long units, Long orders) {
+        return allOf(
+                hasProperty("productName", is(productName)),
+                hasProperty("amount", is(new BigDecimal(amount))),
+                hasProperty("units", is(units)),
+                hasProperty("orders", is(orders))
+        );
+    }
+
 }
@@ -0,0 +1,90 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Limit;
+
+import com.epsum.epsumstock.user.User;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesReportServiceTest {
+
+    @InjectMocks
+    private SalesReportService salesReportService;
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    private final User user = new User(1L, "user", "user@email.com", "password");
+
+    @Nested
+    class ListSalesTests {
+
+        @Test
+        void listSalesFillsBucketsWithoutSales() {
+            // given
+            var sales = new SalesBucket(LocalDate.of(2024, 2, 1), new BigDecimal("10.00"), 4L, 2L);
+            when(salesRollupRepository.findBuckets(SalesPeriod.MONTH, LocalDate.of(2024, 1, 1), LocalDate.of(2024, 3, 1), user)).thenReturn(List.of(sales));
+            // when
+            var buckets = salesReportService.listSales(SalesPeriod.MONTH, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 3, 10), user);
+            // then
+            assertThat(buckets).extracting("bucket").containsExactly(LocalDate.of(2024, 1, 1), LocalDate.of(2024, 2, 1), LocalDate.of(2024, 3, 1));
+            assertThat(buckets).extracting("amount").containsExactly(BigDecimal.ZERO, new BigDecimal("10.00"), BigDecimal.ZERO);
+        }
+
+        @Test
+        void doNotListSalesWithEndBeforeStart() {
+            // when
+            var exception = assertThatThrownBy(() -> salesReportService.listSales(SalesPeriod.DAY, LocalDate.of(2024, 2, 1), LocalDate.of(2024, 1, 1), user));
+            // then
+            exception.isInstanceOf(InvalidSalesRangeException.class);
+            verifyNoInteractions(salesRollupRepository);
+        }
+
+        @Test
+        void doNotListSalesWithTooManyBuckets() {
+            // when
+            var exception = assertThatThrownBy(() -> salesReportService.listSales(SalesPeriod.DAY, LocalDate.of(2023, 1, 1), LocalDate.of(2024, 6, 1), user));
+            // then
+            exception.isInstanceOf(InvalidSalesRangeException.class);
+            verifyNoInteractions(salesRollupRepository);
+        }
+
+    }
+
+    @Nested
+    class ReportSalesTests {
+
+        @Test
+        void reportSalesReadsOnlyRollups() {
+            // given
+            var startDate = LocalDate.of(2024, 1, 1);
+            var endDate = LocalDate.of(2024, 1, 31);
+            var products = List.of(new ProductSales(1L, "A", new BigDecimal("5.00"), 5L, 2L));
+            var categories = List.of(new CategorySales(null, null, new BigDecimal("5.00"), 5L, 2L));
+            when(salesRollupRepository.findProductSales(SalesPeriod.DAY, startDate, endDate, user, Limit.of(SalesReportService.TOP_PRODUCTS_SIZE))).thenReturn(products);
+            when(salesRollupRepository.findCategorySales(SalesPeriod.DAY, startDate, endDate, user)).thenReturn(categories);
+            // when
+            var report = salesReportService.reportSales(SalesPeriod.DAY, startDate, endDate, user);
+            // then
+            assertThat(report.getBuckets()).hasSize(31);
+            assertThat(report.getProducts()).isEqualTo(products);
+            assertThat(report.getCategories()).isEqualTo(categories);
+            verify(salesRollupRepository, times(1)).findBuckets(SalesPeriod.DAY, startDate, endDate, user);
+        }
+
+    }
+
+}
@@ -0,0 +1,95 @@
+package com.epsum.epsumstock.dashboard;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class SalesRollupRebuilderTest {
+
+    @Mock
+    private SalesRollupRepository salesRollupRepository;
+
+    private SalesRollupRebuilder salesRollupRebuilder;
+
+    @BeforeEach
+    void setup() {
+        salesRollupRebuilder = new SalesRollupRebuilder(salesRollupRepository, 2, 10, false);
+    }
+
+    @Nested
+    class ThreadsTests {
+
+        @Test
+        void threadsAreLimitedToHalfTheConnectionPool() {
+            // when
+            var rebuilder = new SalesRollupRebuilder(salesRollupRepository, 4, 5, false);
+            // then
+            assertThat(rebuilder.threads()).isEqualTo(2);
+        }
+
+        @Test
+        void threadsAreAtLeastOne() {
+            // when
+            var rebuilder = new SalesRollupRebuilder(salesRollupRepository, 4, 1, false);
+            // then
+            assertThat(rebuilder.threads()).isEqualTo(1);
+        }
+
+    }
+
+    @Nested
+    class FindChunksTests {
+
+        @Test
+        void findChunksSplitsOrderDatesIntoOwnerMonthsWithinRange() {
+            // given
+            when(salesRollupRepository.findOrderDateRanges()).thenReturn(List.of(
+                    new SalesRollupRange(1L, LocalDate.of(2023, 11, 20), LocalDate.of(2024, 3, 2)),
+                    new SalesRollupRange(2L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 16))
+            ));
+            // when
+            var chunks = salesRollupRebuilder.findChunks(LocalDate.of(2023, 12, 10), LocalDate.of(2024, 2, 5));
+            // then
+            assertThat(chunks).containsExactly(
+                    new SalesRollupRebuilder.Chunk(1L, LocalDate.of(2023, 12, 1)),
+                    new SalesRollupRebuilder.Chunk(1L, LocalDate.of(2024, 1, 1)),
+                    new SalesRollupRebuilder.Chunk(2L, LocalDate.of(2024, 1, 1)),
+                    new SalesRollupRebuilder.Chunk(1L, LocalDate.of(2024, 2, 1))
+            );
+        }
+
+    }
+
+    @Nested
+    class RebuildTests {
+
+        @Test
+        void rebuildRebuildsEachOwnerMonthAndCountsOrders() {
+            // given
+            when(salesRollupRepository.findOrderDateRanges()).thenReturn(List.of(
+                    new SalesRollupRange(1L, LocalDate.of(2024, 1, 20), LocalDate.of(2024, 2, 2)),
+                    new SalesRollupRange(2L, LocalDate.of(2024, 1, 15), LocalDate.of(2024, 1, 16))
+            ));
+            when(salesRollupRepository.rebuild(anyLong(), any(LocalDate.class))).thenReturn(3);
+            // when
+            var orders = salesRollupRebuilder.rebuild(LocalDate.MIN, LocalDate.MAX);
+            // then
+            assertThat(orders).isEqualTo(9);
+            verify(salesRollupRepository, times(1)).rebuild(1L, LocalDate.of(2024, 1, 1));
+            verify(salesRollupRepository, times(1)).rebuild(1L, LocalDate.of(2024, 2, 1));
+            verify(salesRollupRepository, times(1)).rebuild(2L, LocalDate.of(2024, 1, 1));
+        }
+
+    }
+
+}
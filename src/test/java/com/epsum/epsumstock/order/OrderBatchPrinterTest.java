@@ -0,0 +1,184 @@
+package com.epsum.epsumstock.order;
+
+import com.lowagie.text.Paragraph;
+import com.lowagie.text.pdf.PdfReader;
+import com.lowagie.text.pdf.PdfWriter;
+import jakarta.persistence.EntityManager;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.io.ByteArrayResource;
+
+import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.DocumentGenerationUnavailableException;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Future;
+import java.util.function.Supplier;
+import java.util.zip.ZipInputStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderBatchPrinterTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    @Mock
+    private OrderDocumentGenerator orderDocumentGenerator;
+
+    @Mock
+    private EntityManager entityManager;
+
+    private OrderBatchPrinter orderBatchPrinter;
+
+    private final User user = new User(1L, "user", "user@email.com", "password");
+    private final Locale locale = Locale.ENGLISH;
+    private final Order order1 = new OrderBuilder().id(1L).build();
+    private final Order order2 = new OrderBuilder().id(2L).build();
+    private final Order order3 = new OrderBuilder().id(3L).build();
+    private final OrderDocumentVersion version1 = new OrderDocumentVersion(1L, 1, LocalDate.now(), Instant.now());
+    private final OrderDocumentVersion version2 = new OrderDocumentVersion(2L, 2, LocalDate.now(), Instant.now());
+    private final OrderDocumentVersion version3 = new OrderDocumentVersion(3L, 3, LocalDate.now(), Instant.now());
+
+    @BeforeEach
+    void setup() {
+        orderBatchPrinter = new OrderBatchPrinter(orderRepository, orderDocumentGenerator, entityManager, 2);
+        lenient().when(orderDocumentGenerator.awaitOrderDocument(any())).thenAnswer(invocation -> invocation.<Future<Document>>getArgument(0).get());
+    }
+
+    @Nested
+    class FindOrderIdsTests {
+
+        @Test
+        void findOrderIdsKeepsRequestedOrderOfOwnedOrders() {
+            // given
+            when(orderRepository.findIdsByIdInAndOwner(List.of(3L, 1L, 3L, 9L), user)).thenReturn(List.of(1L, 3L));
+            // when
+            var ids = orderBatchPrinter.findOrderIds(List.of(3L, 1L, 3L, 9L), user);
+            // then
+            assertThat(ids).containsExactly(3L, 1L);
+        }
+
+    }
+
+    @Nested
+    class PrintOrdersTests {
+
+        @Test
+        void printOrdersAsZipInRequestedOrder() throws Exception {
+            // given
+            when(orderRepository.findDocumentVersionsByIdInAndOwner(List.of(3L, 1L, 2L), user)).thenReturn(List.of(version1, version2, version3));
+            when(orderRepository.findAllWithItemsByIdInAndOwner(List.of(3L, 1L, 2L), user)).thenReturn(List.of(order1, order2, order3));
+            when(orderDocumentGenerator.submitOrderDocument(any(OrderDocumentVersion.class), any(), eq(locale))).thenAnswer(invocation -> document(invocation.<Supplier<Order>>getArgument(1).get()));
+            var output = new ByteArrayOutputStream();
+            // when
+            orderBatchPrinter.printOrders(OrderPrintFormat.ZIP, List.of(3L, 1L, 2L), user, locale, output);
+            // then
+            assertThat(zipEntries(output.toByteArray())).containsExactly("order-3.pdf", "order-1.pdf", "order-2.pdf");
+            verify(orderDocumentGenerator, times(3)).awaitOrderDocument(any());
+            verify(entityManager, times(1)).clear();
+        }
+
+        @Test
+        void printOrdersLoadsOnlyOrdersWithoutCachedDocument() throws Exception {
+            // given
+            when(orderRepository.findDocumentVersionsByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(version1, version2));
+            when(orderDocumentGenerator.isOrderDocumentCached(version1, locale)).thenReturn(true);
+            when(orderRepository.findAllWithItemsByIdInAndOwner(List.of(2L), user)).thenReturn(List.of(order2));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version1), any(), eq(locale))).thenReturn(document(order1));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version2), any(), eq(locale))).thenAnswer(invocation -> document(invocation.<Supplier<Order>>getArgument(1).get()));
+            var output = new ByteArrayOutputStream();
+            // when
+            orderBatchPrinter.printOrders(OrderPrintFormat.ZIP, List.of(1L, 2L), user, locale, output);
+            // then
+            assertThat(zipEntries(output.toByteArray())).containsExactly("order-1.pdf", "order-2.pdf");
+            verify(orderRepository, never()).findAllWithItemsByIdInAndOwner(List.of(1L, 2L), user);
+        }
+
+        @Test
+        void printOrdersWaitsForPendingDocumentsWhenGeneratorIsSaturated() throws Exception {
+            // given
+            when(orderRepository.findDocumentVersionsByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(version1, version2));
+            when(orderRepository.findAllWithItemsByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(order1, order2));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version1), any(), eq(locale))).thenReturn(document(order1));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version2), any(), eq(locale)))
+                    .thenThrow(DocumentGenerationUnavailableException.class)
+                    .thenReturn(document(order2));
+            var output = new ByteArrayOutputStream();
+            // when
+            orderBatchPrinter.printOrders(OrderPrintFormat.ZIP, List.of(1L, 2L), user, locale, output);
+            // then
+            assertThat(zipEntries(output.toByteArray())).containsExactly("order-1.pdf", "order-2.pdf");
+            verify(orderDocumentGenerator, times(2)).submitOrderDocument(eq(version2), any(), eq(locale));
+        }
+
+        @Test
+        void doNotPrintOrdersWhenGeneratorIsSaturatedWithoutPendingDocuments() {
+            // given
+            when(orderRepository.findDocumentVersionsByIdInAndOwner(List.of(1L), user)).thenReturn(List.of(version1));
+            when(orderRepository.findAllWithItemsByIdInAndOwner(List.of(1L), user)).thenReturn(List.of(order1));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version1), any(), eq(locale))).thenThrow(DocumentGenerationUnavailableException.class);
+            // when
+            var exception = assertThatThrownBy(() -> orderBatchPrinter.printOrders(OrderPrintFormat.ZIP, List.of(1L), user, locale, new ByteArrayOutputStream()));
+            // then
+            exception.isInstanceOf(DocumentGenerationUnavailableException.class);
+        }
+
+        @Test
+        void printOrdersAsMergedPdf() throws Exception {
+            // given
+            when(orderRepository.findDocumentVersionsByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(version1, version2));
+            when(orderRepository.findAllWithItemsByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(order1, order2));
+            when(orderDocumentGenerator.submitOrderDocument(any(OrderDocumentVersion.class), any(), eq(locale))).thenAnswer(invocation -> pdfDocument(invocation.<Supplier<Order>>getArgument(1).get()));
+            var output = new ByteArrayOutputStream();
+            // when
+            orderBatchPrinter.printOrders(OrderPrintFormat.PDF, List.of(1L, 2L), user, locale, output);
+            // then
+            var reader = new PdfReader(output.toByteArray());
+            assertThat(reader.getNumberOfPages()).isEqualTo(2);
+            reader.close();
+        }
+
+    }
+
+    private CompletableFuture<Document> document(Order order) {
+        var content = ("order " + order.getId()).getBytes();
+        return CompletableFuture.completedFuture(new Document("order-" + order.getId() + ".pdf", new ByteArrayResource(content), content.length));
+    }
+
+    private CompletableFuture<Document> pdfDocument(Order order) throws Exception {
+        var content = new ByteArrayOutputStream();
+        var pdf = new com.lowagie.text.Document();
+        PdfWriter.getInstance(pdf, content);
+        pdf.open();
+        pdf.add(new Paragraph("order " + order.getId()));
+        pdf.close();
+        return CompletableFuture.completedFuture(new Document("order-" + order.getId() + ".pdf", new ByteArrayResource(content.toByteArray()), content.size()));
+    }
+
+    private List<String> zipEntries(byte[] content) throws Exception {
+        var entries = new ArrayList<String>();
+        try (var zip = new ZipInputStream(new ByteArrayInputStream(content))) {
+            for (var entry = zip.getNextEntry(); entry != null; entry = zip.getNextEntry()) {
+                entries.add(entry.getName());
+            }
+        }
+        return entries;
+    }
+
+}
@@ -9,9 +9,9 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.test.autoconfigure.web.servlet.WebMvcTest;
 import org.springframework.boot.test.mock.mockito.MockBean;
 import org.springframework.context.annotation.Import;
+import org.springframework.core.io.ByteArrayResource;
 import org.springframework.data.domain.PageImpl;
 import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
 import org.springframework.http.MediaType;
 import org.springframework.security.test.context.support.WithUserDetails;
 import org.springframework.test.web.servlet.MockMvc;
@@ -20,34 +20,37 @@ import org.springframework.util.LinkedMultiValueMap;
 import com.epsum.epsumstock.MockUserDetailsService;
 import com.epsum.epsumstock.category.Category;
 import com.epsum.epsumstock.customer.Customer;
-import com.epsum.epsumstock.customer.CustomerService;
+import com.epsum.epsumstock.customer.CustomerSuggestion;
+import com.epsum.epsumstock.customer.CustomerTypeahead;
 import com.epsum.epsumstock.order.Order;
 import com.epsum.epsumstock.order.OrderController;
 import com.epsum.epsumstock.order.OrderService;
 import com.epsum.epsumstock.order.OrderStatus;
 import com.epsum.epsumstock.order.ProductWithInsufficientStockException;
 import com.epsum.epsumstock.product.Product;
-import com.epsum.epsumstock.product.ProductService;
+import com.epsum.epsumstock.product.ProductSuggestion;
+import com.epsum.epsumstock.product.ProductTypeahead;
 import com.epsum.epsumstock.user.User;
 import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.DocumentGenerationUnavailableException;
 
-import java.io.ByteArrayOutputStream;
+import java.io.OutputStream;
 import java.math.BigDecimal;
 import java.time.LocalDate;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
 import java.util.stream.Stream;
 
-import static com.epsum.epsumstock.customer.CustomerMatchers.customer;
 import static com.epsum.epsumstock.order.OrderMatchers.item;
 import static com.epsum.epsumstock.order.OrderMatchers.order;
-import static com.epsum.epsumstock.product.ProductMatchers.product;
 import static org.hamcrest.Matchers.*;
 import static org.junit.jupiter.api.Named.named;
 import static org.junit.jupiter.params.provider.Arguments.arguments;
 import static org.mockito.ArgumentMatchers.any;
 import static org.mockito.Mockito.*;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -61,41 +64,41 @@ class OrderControllerTest {
     private OrderService orderService;
 
     @MockBean
-    private ProductService productService;
+    private ProductTypeahead productTypeahead;
 
     @MockBean
-    private CustomerService customerService;
+    private CustomerTypeahead customerTypeahead;
+
+    @MockBean
+    private OrderExporter orderExporter;
+
+    @MockBean
+    private OrderBatchPrinter orderBatchPrinter;
 
     @Autowired
     private MockMvc client;
 
     private Customer customerA = new Customer(1L, "A", "A", "A");
-    private Customer customerB = new Customer(2L, "B", "B", "B");
     private Product productA = new Product(1L, "A", new Category("A"), 10, new BigDecimal("1.00"));
-    private Product productB = new Product(2L, "B", new Category("B"), 20, new BigDecimal("2.00"));
+    private CustomerSuggestion customerSuggestionA = new CustomerSuggestion(1L, "A");
+    private CustomerSuggestion customerSuggestionB = new CustomerSuggestion(2L, "B");
+    private ProductSuggestion productSuggestionA = new ProductSuggestion(1L, "A", new BigDecimal("1.00"), 10);
+    private ProductSuggestion productSuggestionB = new ProductSuggestion(2L, "B", new BigDecimal("2.00"), 20);
 
     @Nested
     class CreateOrderTests {
 
         @Test
         void retrieveCreateOrderPage() throws Exception {
-            // given
-            when(customerService.listCustomers(any(User.class))).thenReturn(List.of(customerA, customerB));
-            when(productService.listProducts(any(User.class))).thenReturn(List.of(productA, productB));
             // when
             var result = client.perform(get("/orders/create"));
             // then
             result.andExpectAll(
                     status().isOk(),
                     model().attribute("order", is(order())),
-                    model().attribute("customers", contains(
-                            customer(1L, "A", "A", "A"),
-                            customer(2L, "B", "B", "B")
-                    )),
-                    model().attribute("products", contains(
-                            product(1L, "A", "A", 10, "1.00"),
-                            product(2L, "B", "B", 20, "2.00")
-                    )),
+                    model().attribute("customer", nullValue()),
+                    model().attribute("products", empty()),
+                    model().attribute("submissionToken", notNullValue()),
                     model().attribute("mode", "create"),
                     view().name("order/order-form")
             );
@@ -109,6 +112,7 @@ class OrderControllerTest {
                     .param("customerId", "1")
                     .param("items[0].quantity", "5")
                     .param("items[0].productId", "1")
+                    .param("submission-token", "token")
                     .with(csrf())
             );
             // then
@@ -116,15 +120,15 @@ class OrderControllerTest {
                     status().isFound(),
                     redirectedUrl("/orders/list?status=UNPAID")
             );
-            verify(orderService, times(1)).createOrder(any(Order.class), any(User.class));
+            verify(orderService, times(1)).createOrder(any(Order.class), eq("token"), any(User.class));
         }
 
         @Test
         void doNotCreateOrderWithProductsWithInsufficientStock() throws Exception {
             // given
-            when(customerService.listCustomers(any(User.class))).thenReturn(List.of(customerA, customerB));
-            when(productService.listProducts(any(User.class))).thenReturn(List.of(productA, productB));
-            doThrow(ProductWithInsufficientStockException.class).when(orderService).createOrder(any(Order.class), any(User.class));
+            when(customerTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(customerSuggestionA));
+            when(productTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(productSuggestionA));
+            doThrow(ProductWithInsufficientStockException.class).when(orderService).createOrder(any(Order.class), any(), any(User.class));
             // when
             var result = client.perform(post("/orders/create")
                     .param("status", "UNPAID")
@@ -140,14 +144,8 @@ class OrderControllerTest {
                     model().attribute("order", is(
                             order("UNPAID", 1L, contains(item(5, 1L)))
                     )),
-                    model().attribute("customers", contains(
-                            customer(1L, "A", "A", "A"),
-                            customer(2L, "B", "B", "B")
-                    )),
-                    model().attribute("products", contains(
-                            product(1L, "A", "A", 10, "1.00"),
-                            product(2L, "B", "B", 20, "2.00")
-                    )),
+                    model().attribute("customer", customerSuggestionA),
+                    model().attribute("products", contains(productSuggestionA)),
                     model().attribute("mode", "create"),
                     view().name("order/order-form")
             );
@@ -170,37 +168,18 @@ class OrderControllerTest {
     @Nested
     class ListOrdersTests {
 
-        private final List<Order> orders = List.of(
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build(),
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build(),
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build()
+        private final List<OrderSummary> orders = List.of(
+                new OrderSummary(1L, 1, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00")),
+                new OrderSummary(2L, 2, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00")),
+                new OrderSummary(3L, 3, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00"))
         );
 
         @ParameterizedTest
         @EnumSource(OrderStatus.class)
         void listOrders(OrderStatus status) throws Exception {
             // given
-            var pageable = PageRequest.of(0, 8, Sort.by("date"));
-            var orderPage = new PageImpl<>(orders, pageable, 3);
-            when(orderService.listOrders(any(OrderStatus.class), anyInt(), any(User.class))).thenReturn(orderPage);
+            var orderSlice = new OrderSlice(orders, null, new OrderCursor(LocalDate.of(2024, 1, 1), 3L));
+            when(orderService.listOrders(any(OrderStatus.class), any(), any(), any(User.class))).thenReturn(orderSlice);
             // when
             var result = client.perform(get("/orders/list")
                     .param("status", status.name())
@@ -214,11 +193,43 @@ class OrderControllerTest {
                             order("A", LocalDate.now(), 15, "25.00"),
                             order("A", LocalDate.now(), 15, "25.00")
                     )),
-                    model().attribute("currentPage", 1),
-                    model().attribute("totalPages", 1),
+                    model().attribute("previous", nullValue()),
+                    model().attribute("next", new OrderCursor(LocalDate.of(2024, 1, 1), 3L)),
+                    view().name("order/order-table")
+            );
+            verify(orderService, times(1)).listOrders(eq(status), isNull(), isNull(), any(User.class));
+        }
+
+        @Test
+        void listOrdersAfterCursor() throws Exception {
+            // given
+            var orderSlice = new OrderSlice(orders, new OrderCursor(LocalDate.of(2024, 1, 1), 4L), null);
+            when(orderService.listOrders(any(OrderStatus.class), any(), any(), any(User.class))).thenReturn(orderSlice);
+            // when
+            var result = client.perform(get("/orders/list")
+                    .param("status", "UNPAID")
+                    .param("after", "2024-01-01_3")
+            );
+            // then
+            result.andExpectAll(
+                    status().isOk(),
+                    model().attribute("previous", new OrderCursor(LocalDate.of(2024, 1, 1), 4L)),
+                    model().attribute("next", nullValue()),
                     view().name("order/order-table")
             );
-            verify(orderService, times(1)).listOrders(any(OrderStatus.class), anyInt(), any(User.class));
+            verify(orderService, times(1)).listOrders(eq(OrderStatus.UNPAID), eq(new OrderCursor(LocalDate.of(2024, 1, 1), 3L)), isNull(), any(User.class));
+        }
+
+        @Test
+        void doNotListOrdersWithInvalidCursor() throws Exception {
+            // when
+            var result = client.perform(get("/orders/list")
+                    .param("status", "UNPAID")
+                    .param("after", "invalid")
+            );
+            // then
+            result.andExpect(status().isBadRequest());
+            verify(orderService, never()).listOrders(any(), any(), any(), any());
         }
 
     }
@@ -228,21 +239,10 @@ class OrderControllerTest {
 
         @Test
         void findOrders() throws Exception {
+            // given
             var orders = List.of(
-                    new OrderBuilder()
-                            .status(OrderStatus.UNPAID)
-                            .date(LocalDate.now())
-                            .customer(customerA)
-                            .item(5, productA)
-                            .item(10, productB)
-                            .build(),
-                    new OrderBuilder()
-                            .status(OrderStatus.UNPAID)
-                            .date(LocalDate.now())
-                            .customer(customerA)
-                            .item(5, productA)
-                            .item(10, productB)
-                            .build()
+                    new OrderSummary(1L, 1, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00")),
+                    new OrderSummary(2L, 2, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00"))
             );
             when(orderService.findOrders(any(OrderStatus.class), anyString(), any(User.class))).thenReturn(orders);
             // when
@@ -270,13 +270,14 @@ class OrderControllerTest {
         @Test
         void printOrder() throws Exception {
             // given
-            var content = new ByteArrayOutputStream();
-            content.writeBytes("content".getBytes());
-            when(orderService.printOrder(anyLong(), any(User.class))).thenReturn(new Document("filename", content, content.size()));
+            var content = "content".getBytes();
+            when(orderService.printOrder(anyLong(), any(User.class))).thenReturn(CompletableFuture.completedFuture(new Document("filename", new ByteArrayResource(content), content.length)));
             // when
-            var result = client.perform(get("/orders/print/{id}", 1L));
+            var result = client.perform(get("/orders/print/{id}", 1L))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
             // then
-            result.andExpectAll(
+            client.perform(asyncDispatch(result)).andExpectAll(
                     status().isOk(),
                     content().contentType(MediaType.APPLICATION_PDF),
                     header().string("Content-Disposition", "attachment; filename=filename"),
@@ -285,6 +286,130 @@ class OrderControllerTest {
             verify(orderService, times(1)).printOrder(anyLong(), any(User.class));
         }
 
+        @Test
+        void doNotPrintOrderWhenDocumentGeneratorIsSaturated() throws Exception {
+            // given
+            when(orderService.printOrder(anyLong(), any(User.class))).thenThrow(DocumentGenerationUnavailableException.class);
+            // when
+            var result = client.perform(get("/orders/print/{id}", 1L));
+            // then
+            result.andExpect(status().isServiceUnavailable());
+        }
+
+        @Test
+        void doNotPrintOrderWhenDocumentIsNotGeneratedInTime() throws Exception {
+            // given
+            when(orderService.printOrder(anyLong(), any(User.class))).thenReturn(CompletableFuture.failedFuture(new DocumentGenerationUnavailableException()));
+            // when
+            var result = client.perform(get("/orders/print/{id}", 1L))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // then
+            client.perform(asyncDispatch(result)).andExpect(status().isServiceUnavailable());
+        }
+
+    }
+
+    @Nested
+    class PrintOrdersTests {
+
+        @Test
+        void printSelectedOrders() throws Exception {
+            // given
+            when(orderBatchPrinter.findOrderIds(eq(List.of(2L, 1L)), any(User.class))).thenReturn(List.of(2L, 1L));
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(4).write("content".getBytes());
+                return null;
+            }).when(orderBatchPrinter).printOrders(eq(OrderPrintFormat.ZIP), eq(List.of(2L, 1L)), any(User.class), any(), any(OutputStream.class));
+            // when
+            var result = client.perform(post("/orders/print")
+                            .param("format", "ZIP")
+                            .param("ids", "2", "1")
+                            .with(csrf())
+                    )
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // then
+            client.perform(asyncDispatch(result)).andExpectAll(
+                    status().isOk(),
+                    content().contentType("application/zip"),
+                    header().string("Content-Disposition", "attachment; filename=orders.zip"),
+                    content().string("content")
+            );
+        }
+
+        @Test
+        void printOrdersByDateRange() throws Exception {
+            // given
+            var startDate = LocalDate.of(2024, 1, 1);
+            var endDate = LocalDate.of(2024, 1, 31);
+            when(orderBatchPrinter.findOrderIds(eq(OrderStatus.PAID), eq(startDate), eq(endDate), any(User.class))).thenReturn(List.of(1L, 2L));
+            // when
+            var result = client.perform(post("/orders/print")
+                            .param("format", "PDF")
+                            .param("start-date", "2024-01-01")
+                            .param("end-date", "2024-01-31")
+                            .sessionAttr("status", OrderStatus.PAID)
+                            .with(csrf())
+                    )
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // then
+            client.perform(asyncDispatch(result)).andExpectAll(
+                    status().isOk(),
+                    content().contentType(MediaType.APPLICATION_PDF),
+                    header().string("Content-Disposition", "attachment; filename=orders.pdf")
+            );
+            verify(orderBatchPrinter, times(1)).printOrders(eq(OrderPrintFormat.PDF), eq(List.of(1L, 2L)), any(User.class), any(), any(OutputStream.class));
+        }
+
+        @Test
+        void doNotPrintOrdersWithoutSelection() throws Exception {
+            // when
+            var result = client.perform(post("/orders/print")
+                    .param("format", "PDF")
+                    .with(csrf())
+            );
+            // then
+            result.andExpect(status().isNotFound());
+            verifyNoInteractions(orderBatchPrinter);
+        }
+
+    }
+
+    @Nested
+    class ExportOrdersTests {
+
+        @Test
+        void exportOrders() throws Exception {
+            // given
+            doAnswer(invocation -> {
+                invocation.<OutputStream>getArgument(2).write("content".getBytes());
+                return null;
+            }).when(orderExporter).exportOrders(eq(OrderExportFormat.CSV), any(User.class), any(OutputStream.class));
+            // when
+            var result = client.perform(get("/orders/export").param("format", "CSV"))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
+            // then
+            client.perform(asyncDispatch(result)).andExpectAll(
+                    status().isOk(),
+                    content().contentType("text/csv"),
+                    header().string("Content-Disposition", "attachment; filename=orders.csv"),
+                    content().string("content")
+            );
+            verify(orderExporter, times(1)).exportOrders(eq(OrderExportFormat.CSV), any(User.class), any(OutputStream.class));
+        }
+
+        @Test
+        void doNotExportOrdersWithUnknownFormat() throws Exception {
+            // when
+            var result = client.perform(get("/orders/export").param("format", "XML"));
+            // then
+            result.andExpect(status().isBadRequest());
+            verifyNoInteractions(orderExporter);
+        }
+
     }
 
     @Nested
@@ -300,8 +425,9 @@ class OrderControllerTest {
                     .item(5, productA)
                     .build();
             when(orderService.findOrder(anyLong(), any(User.class))).thenReturn(order);
-            when(customerService.listCustomers(any(User.class))).thenReturn(List.of(customerA, customerB));
-            when(productService.listProducts(any(User.class))).thenReturn(List.of(productA, productB));
+            when(orderService.findOrderItems(anyLong(), eq(1), any(User.class))).thenReturn(new PageImpl<>(order.getItems(), PageRequest.of(0, 100), 1));
+            when(customerTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(customerSuggestionA));
+            when(productTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(productSuggestionA));
             // when
             var result = client.perform(get("/orders/update/{id}", 1L));
             // then
@@ -311,14 +437,39 @@ class OrderControllerTest {
                             order("UNPAID", 1L, contains(item(5, 1L)))
                     )),
                     model().attribute("id", 1L),
-                    model().attribute("customers", contains(
-                            customer(1L, "A", "A", "A"),
-                            customer(2L, "B", "B", "B")
-                    )),
-                    model().attribute("products", contains(
-                            product(1L, "A", "A", 10, "1.00"),
-                            product(2L, "B", "B", 20, "2.00")
+                    model().attribute("customer", customerSuggestionA),
+                    model().attribute("products", contains(productSuggestionA)),
+                    model().attribute("largeOrder", false),
+                    model().attribute("mode", "update"),
+                    view().name("order/order-form")
+            );
+        }
+
+        @Test
+        void retrieveUpdateOrderPageOfLargeOrder() throws Exception {
+            // given
+            var order = new OrderBuilder()
+                    .id(1L)
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .build();
+            when(orderService.findOrder(anyLong(), any(User.class))).thenReturn(order);
+            when(orderService.findOrderItems(anyLong(), eq(3), any(User.class))).thenReturn(new PageImpl<>(order.getItems(), PageRequest.of(2, 100), 201));
+            when(customerTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(customerSuggestionA));
+            when(productTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(productSuggestionA));
+            // when
+            var result = client.perform(get("/orders/update/{id}", 1L).param("page", "3"));
+            // then
+            result.andExpectAll(
+                    status().isOk(),
+                    model().attribute("order", is(
+                            order("UNPAID", 1L, contains(item(5, 1L)))
                     )),
+                    model().attribute("largeOrder", true),
+                    model().attribute("currentPage", 3),
+                    model().attribute("totalPages", 3),
+                    model().attribute("pageProductIds", contains(1L)),
                     model().attribute("mode", "update"),
                     view().name("order/order-form")
             );
@@ -341,15 +492,15 @@ class OrderControllerTest {
                     status().isFound(),
                     redirectedUrlTemplate("/orders/list?status={status}", sessionStatus)
             );
-            verify(orderService, times(1)).updateOrder(anyLong(), any(Order.class), any(User.class));
+            verify(orderService, times(1)).updateOrder(anyLong(), any(Order.class), any(), any(User.class));
         }
 
         @Test
         void doNotUpdateOrderUsingProductsWithInsufficientStock() throws Exception {
             // given
-            when(customerService.listCustomers(any(User.class))).thenReturn(List.of(customerA, customerB));
-            when(productService.listProducts(any(User.class))).thenReturn(List.of(productA, productB));
-            doThrow(ProductWithInsufficientStockException.class).when(orderService).updateOrder(anyLong(), any(Order.class), any(User.class));
+            when(customerTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(customerSuggestionB));
+            when(productTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(productSuggestionB));
+            doThrow(ProductWithInsufficientStockException.class).when(orderService).updateOrder(anyLong(), any(Order.class), any(), any(User.class));
             // when
             var result = client.perform(post("/orders/update/{id}", 1L)
                     .param("status", "PAID")
@@ -366,18 +517,12 @@ class OrderControllerTest {
                             order("PAID", 2L, contains(item(10, 2L)))
                     )),
                     model().attribute("id", 1L),
-                    model().attribute("customers", contains(
-                            customer(1L, "A", "A", "A"),
-                            customer(2L, "B", "B", "B")
-                    )),
-                    model().attribute("products", contains(
-                            product(1L, "A", "A", 10, "1.00"),
-                            product(2L, "B", "B", 20, "2.00")
-                    )),
+                    model().attribute("customer", customerSuggestionB),
+                    model().attribute("products", contains(productSuggestionB)),
                     model().attribute("mode", "update"),
                     view().name("order/order-form")
             );
-            verify(orderService, times(1)).updateOrder(anyLong(), any(Order.class), any(User.class));
+            verify(orderService, times(1)).updateOrder(anyLong(), any(Order.class), any(), any(User.class));
         }
 
         @ParameterizedTest
@@ -394,6 +539,128 @@ class OrderControllerTest {
 
     }
 
+    @Nested
+    class UpdateOrderItemsTests {
+
+        @Test
+        void updateOrderItems() throws Exception {
+            // when
+            var result = client.perform(post("/orders/update/{id}/items", 1L)
+                    .param("page", "2")
+                    .param("status", "UNPAID")
+                    .param("customerId", "1")
+                    .param("items[0].quantity", "10")
+                    .param("items[0].productId", "2")
+                    .param("page-product-ids", "1", "2")
+                    .with(csrf())
+            );
+            // then
+            result.andExpectAll(
+                    status().isFound(),
+                    redirectedUrl("/orders/update/1?page=2")
+            );
+            verify(orderService, times(1)).updateOrderItems(eq(1L), any(Order.class), eq(List.of(1L, 2L)), any(), any(User.class));
+        }
+
+        @Test
+        void doNotUpdateOrderItemsWithProductFromAnotherPage() throws Exception {
+            // given
+            var order = new OrderBuilder()
+                    .id(1L)
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .build();
+            when(orderService.findOrder(anyLong(), any(User.class))).thenReturn(order);
+            when(orderService.findOrderItems(anyLong(), eq(2), any(User.class))).thenReturn(new PageImpl<>(order.getItems(), PageRequest.of(1, 100), 101));
+            when(customerTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(customerSuggestionA));
+            when(productTypeahead.findAll(anyCollection(), any(User.class))).thenReturn(List.of(productSuggestionB));
+            doThrow(DuplicatedOrderItemException.class).when(orderService).updateOrderItems(anyLong(), any(Order.class), anyList(), any(), any(User.class));
+            // when
+            var result = client.perform(post("/orders/update/{id}/items", 1L)
+                    .param("page", "2")
+                    .param("status", "UNPAID")
+                    .param("customerId", "1")
+                    .param("items[0].quantity", "10")
+                    .param("items[0].productId", "2")
+                    .param("page-product-ids", "1")
+                    .with(csrf())
+            );
+            // then
+            result.andExpectAll(
+                    status().isOk(),
+                    model().attribute("duplicatedItem", true),
+                    model().attribute("order", is(
+                            order("UNPAID", 1L, contains(item(10, 2L)))
+                    )),
+                    model().attribute("largeOrder", true),
+                    model().attribute("currentPage", 2),
+                    model().attribute("mode", "update"),
+                    view().name("order/order-form")
+            );
+        }
+
+        @ParameterizedTest
+        @ArgumentsSource(RequestParametersProvider.class)
+        void doNotUpdateOrderItemsUsingInvalidFields(Map<String, List<String>> params) throws Exception {
+            // when
+            var result = client.perform(post("/orders/update/{id}/items", 1L)
+                    .params(new LinkedMultiValueMap<>(params))
+                    .with(csrf())
+            );
+            // then
+            result.andExpect(status().isBadRequest());
+            verify(orderService, never()).updateOrderItems(anyLong(), any(Order.class), anyList(), any(), any(User.class));
+        }
+
+    }
+
+    @Nested
+    class UpdateOrderStatusTests {
+
+        @Test
+        void updateSelectedOrdersStatus() throws Exception {
+            // when
+            var result = client.perform(post("/orders/status")
+                    .param("status", "PAID")
+                    .param("ids", "1", "2")
+                    .sessionAttr("status", OrderStatus.UNPAID)
+                    .with(csrf())
+            );
+            // then
+            result.andExpectAll(
+                    status().isFound(),
+                    redirectedUrl("/orders/list?status=UNPAID")
+            );
+            verify(orderService, times(1)).updateOrderStatus(eq(List.of(1L, 2L)), eq(OrderStatus.PAID), any(User.class));
+        }
+
+        @Test
+        void updateOrdersStatusInDateRange() throws Exception {
+            // when
+            var result = client.perform(post("/orders/status")
+                    .param("status", "PAID")
+                    .param("start-date", "2024-01-01")
+                    .param("end-date", "2024-01-31")
+                    .sessionAttr("status", OrderStatus.UNPAID)
+                    .with(csrf())
+            );
+            // then
+            result.andExpectAll(
+                    status().isFound(),
+                    redirectedUrl("/orders/list?status=UNPAID")
+            );
+            verify(orderService, times(1)).updateOrderStatus(
+                    eq(OrderStatus.UNPAID),
+                    eq(LocalDate.of(2024, 1, 1)),
+                    eq(LocalDate.of(2024, 1, 31)),
+                    eq(OrderStatus.PAID),
+                    any(User.class)
+            );
+        }
+
+    }
+
     @Nested
     class DeleteOrderTests {
 
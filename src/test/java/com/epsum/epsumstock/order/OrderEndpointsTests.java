@@ -33,6 +33,8 @@ import java.util.List;
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.hamcrest.Matchers.hasSize;
 import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.csrf;
+import static org.springframework.security.test.web.servlet.request.SecurityMockMvcRequestPostProcessors.user;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.asyncDispatch;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.get;
 import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
 import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.*;
@@ -114,7 +116,7 @@ class OrderEndpointsTests {
             var order = orderRepository.findAllWithItems().getFirst();
             assertThat(order)
                     .usingRecursiveComparison()
-                    .ignoringFields("id", "number", "items.id", "items.index", "items.order", "items.product.quantity")
+                    .ignoringFields("id", "number", "items.id", "items.index", "items.order", "items.product.quantity", "items.product.nameModificationTime", "totalQuantity", "totalAmount", "modificationTime")
                     .isEqualTo(new OrderBuilder()
                             .status(OrderStatus.UNPAID)
                             .date(LocalDate.now())
@@ -126,6 +128,42 @@ class OrderEndpointsTests {
                     );
             assertThat(order.getItems()).extracting("product.quantity")
                     .containsExactly(5, 10);
+            assertThat(order.getQuantity()).isEqualTo(15);
+            assertThat(order.getAmount()).isEqualByComparingTo("25.00");
+        }
+
+        @Test
+        void createOrderOncePerOwnerForSameSubmissionToken() throws Exception {
+            // given
+            var otherUser = userRepository.save(new User("other", "other@email.com", "$2a$10$gYCEDfFbidA3IInCfzcXdugclrYR/6FbQuogN7Ixc3ohWi90MEXiO"));
+            var otherCustomer = customerRepository.save(new Customer("A", "A", "A", otherUser));
+            var otherProduct = productRepository.save(new Product("A", categoryRepository.save(new Category("A", otherUser)), 10, "1.00", otherUser));
+            // when
+            for (var i = 0; i < 2; i++) {
+                client.perform(post("/orders/create")
+                        .param("status", "UNPAID")
+                        .param("customerId", customerA.getId().toString())
+                        .param("items[0].quantity", "5")
+                        .param("items[0].productId", productA.getId().toString())
+                        .param("submission-token", "token")
+                        .with(csrf())
+                ).andExpect(redirectedUrl("/orders/list?status=UNPAID"));
+                client.perform(post("/orders/create")
+                        .param("status", "UNPAID")
+                        .param("customerId", otherCustomer.getId().toString())
+                        .param("items[0].quantity", "5")
+                        .param("items[0].productId", otherProduct.getId().toString())
+                        .param("submission-token", "token")
+                        .with(user(otherUser))
+                        .with(csrf())
+                ).andExpect(redirectedUrl("/orders/list?status=UNPAID"));
+            }
+            // then
+            assertThat(orderRepository.findAllWithItems())
+                    .extracting(order -> order.getOwner().getId())
+                    .containsExactlyInAnyOrder(user.getId(), otherUser.getId());
+            assertThat(productRepository.findById(productA.getId()).orElseThrow().getQuantity()).isEqualTo(5);
+            assertThat(productRepository.findById(otherProduct.getId()).orElseThrow().getQuantity()).isEqualTo(5);
         }
 
     }
@@ -225,9 +263,11 @@ class OrderEndpointsTests {
                     .build()
             );
             // when
-            var result = client.perform(get("/orders/print/{id}", order.getId()));
+            var result = client.perform(get("/orders/print/{id}", order.getId()))
+                    .andExpect(request().asyncStarted())
+                    .andReturn();
             // then
-            result.andExpectAll(
+            client.perform(asyncDispatch(result)).andExpectAll(
                     status().isOk(),
                     content().contentType(MediaType.APPLICATION_PDF),
                     header().exists("Content-Disposition")
@@ -276,7 +316,7 @@ class OrderEndpointsTests {
             var order = orderRepository.findAllWithItems().getFirst();
             assertThat(order)
                     .usingRecursiveComparison()
-                    .ignoringFields("id", "number", "date", "items.id", "items.index", "items.order", "items.product.quantity")
+                    .ignoringFields("id", "number", "date", "items.id", "items.index", "items.order", "items.product.quantity", "items.product.nameModificationTime", "totalQuantity", "totalAmount", "modificationTime")
                     .isEqualTo(new OrderBuilder()
                             .status(OrderStatus.PAID)
                             .customer(customerB)
@@ -286,6 +326,8 @@ class OrderEndpointsTests {
                             .owner(user)
                             .build()
                     );
+            assertThat(order.getQuantity()).isEqualTo(33);
+            assertThat(order.getAmount()).isEqualByComparingTo("103.00");
             assertThat(productRepository.findAll(Sort.by("name")))
                     .extracting("quantity")
                     .containsExactly(7, 10, 30, 20);
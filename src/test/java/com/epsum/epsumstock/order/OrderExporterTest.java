@@ -0,0 +1,88 @@
+package com.epsum.epsumstock.order;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.epsum.epsumstock.user.User;
+
+import java.io.ByteArrayOutputStream;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderExporterTest {
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private OrderExporter orderExporter;
+
+    private final User user = new User(1L, "user", "user@email.com", "password");
+
+    @BeforeEach
+    void setup() {
+        var objectMapper = new ObjectMapper()
+                .registerModule(new JavaTimeModule())
+                .disable(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS);
+        orderExporter = new OrderExporter(orderRepository, objectMapper);
+    }
+
+    @Test
+    void exportOrdersAsCsv() throws Exception {
+        // given
+        var output = new ByteArrayOutputStream();
+        when(orderRepository.streamExportLinesByOwner(user)).thenReturn(lines());
+        // when
+        orderExporter.exportOrders(OrderExportFormat.CSV, user, output);
+        // then
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                number;status;date;customer;product;quantity;price
+                1;UNPAID;2024-01-01;A;A;5;1.00
+                1;UNPAID;2024-01-01;A;B;10;2.00
+                """);
+    }
+
+    @Test
+    void exportOrdersAsJsonLines() throws Exception {
+        // given
+        var output = new ByteArrayOutputStream();
+        when(orderRepository.streamExportLinesByOwner(user)).thenReturn(lines());
+        // when
+        orderExporter.exportOrders(OrderExportFormat.JSONL, user, output);
+        // then
+        assertThat(output.toString(StandardCharsets.UTF_8)).isEqualTo("""
+                {"number":1,"status":"UNPAID","date":"2024-01-01","customerName":"A","productName":"A","quantity":5,"price":1.00}
+                {"number":1,"status":"UNPAID","date":"2024-01-01","customerName":"A","productName":"B","quantity":10,"price":2.00}
+                """);
+    }
+
+    @Test
+    void exportClosesStream() throws Exception {
+        // given
+        var closed = new boolean[1];
+        when(orderRepository.streamExportLinesByOwner(user)).thenReturn(lines().onClose(() -> closed[0] = true));
+        // when
+        orderExporter.exportOrders(OrderExportFormat.CSV, user, new ByteArrayOutputStream());
+        // then
+        assertThat(closed[0]).isTrue();
+    }
+
+    private Stream<OrderExportLine> lines() {
+        return Stream.of(
+                new OrderExportLine(1, OrderStatus.UNPAID, LocalDate.of(2024, 1, 1), "A", "A", 5, new BigDecimal("1.00")),
+                new OrderExportLine(1, OrderStatus.UNPAID, LocalDate.of(2024, 1, 1), "A", "B", 10, new BigDecimal("2.00"))
+        );
+    }
+
+}
@@ -21,4 +21,29 @@ class OrderItemTest {
         assertThat(amount).isEqualTo(new BigDecimal("40"));
     }
 
+    @Test
+    void getAmountUsesPriceAtOrderTime() {
+        // given
+        var product = new Product(null, null, null, "20");
+        var item = new OrderItem(2, product);
+        product.setPrice(new BigDecimal("30"));
+        // when
+        var amount = item.getAmount();
+        // then
+        assertThat(amount).isEqualTo(new BigDecimal("40"));
+    }
+
+    @Test
+    void toFormCarriesPriceAtOrderTime() {
+        // given
+        var product = new Product(null, null, null, "20");
+        var item = new OrderItem(2, product);
+        product.setPrice(new BigDecimal("30"));
+        // when
+        var form = item.toForm();
+        // then
+        assertThat(form.getPrice()).isEqualTo(new BigDecimal("20"));
+        assertThat(form.getQuantity()).isEqualTo(2);
+    }
+
 }
@@ -30,9 +30,9 @@ public class OrderMatchers {
         );
     }
 
-    public static Matcher<OrderForm> order(String customer, LocalDate date, Integer quantity, String price) {
+    public static Matcher<OrderSummary> order(String customerName, LocalDate date, Integer quantity, String price) {
         return allOf(
-                hasProperty("customer", hasProperty("name", is(customer))),
+                hasProperty("customerName", is(customerName)),
                 hasProperty("date", is(date)),
                 hasProperty("quantity", is(quantity)),
                 hasProperty("amount", is(new BigDecimal(price)))
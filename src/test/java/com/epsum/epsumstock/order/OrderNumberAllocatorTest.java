@@ -0,0 +1,67 @@
+package com.epsum.epsumstock.order;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.epsum.epsumstock.user.User;
+
+import java.util.stream.IntStream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OrderNumberAllocatorTest {
+
+    @InjectMocks
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Mock
+    private OrderRepository orderRepository;
+
+    private final User userA = new User(1L, "A", "a@email.com", "password");
+    private final User userB = new User(2L, "B", "b@email.com", "password");
+
+    @Test
+    void nextNumberReservesOneBlockForManyOrders() {
+        // given
+        when(orderRepository.reserveOrderNumbers(1L, OrderNumberAllocator.BLOCK_SIZE)).thenReturn(OrderNumberAllocator.BLOCK_SIZE);
+        // when
+        var numbers = IntStream.range(0, OrderNumberAllocator.BLOCK_SIZE)
+                .map(i -> orderNumberAllocator.nextNumber(userA))
+                .toArray();
+        // then
+        assertThat(numbers).startsWith(1, 2, 3).endsWith(OrderNumberAllocator.BLOCK_SIZE).doesNotHaveDuplicates();
+        verify(orderRepository, times(1)).reserveOrderNumbers(anyLong(), anyInt());
+    }
+
+    @Test
+    void nextNumberReservesNewBlockWhenCurrentOneIsUsed() {
+        // given
+        when(orderRepository.reserveOrderNumbers(1L, OrderNumberAllocator.BLOCK_SIZE))
+                .thenReturn(OrderNumberAllocator.BLOCK_SIZE, 3 * OrderNumberAllocator.BLOCK_SIZE);
+        IntStream.range(0, OrderNumberAllocator.BLOCK_SIZE).forEach(i -> orderNumberAllocator.nextNumber(userA));
+        // when
+        var number = orderNumberAllocator.nextNumber(userA);
+        // then
+        assertThat(number).isEqualTo(2 * OrderNumberAllocator.BLOCK_SIZE + 1);
+        verify(orderRepository, times(2)).reserveOrderNumbers(anyLong(), anyInt());
+    }
+
+    @Test
+    void nextNumberKeepsSeparateBlocksPerOwner() {
+        // given
+        when(orderRepository.reserveOrderNumbers(1L, OrderNumberAllocator.BLOCK_SIZE)).thenReturn(OrderNumberAllocator.BLOCK_SIZE);
+        when(orderRepository.reserveOrderNumbers(2L, OrderNumberAllocator.BLOCK_SIZE)).thenReturn(2 * OrderNumberAllocator.BLOCK_SIZE);
+        // when
+        var numberA = orderNumberAllocator.nextNumber(userA);
+        var numberB = orderNumberAllocator.nextNumber(userB);
+        // then
+        assertThat(numberA).isEqualTo(1);
+        assertThat(numberB).isEqualTo(OrderNumberAllocator.BLOCK_SIZE + 1);
+    }
+
+}
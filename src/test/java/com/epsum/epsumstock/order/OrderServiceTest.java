@@ -1,19 +1,25 @@
 package com.epsum.epsumstock.order;
 
+import jakarta.persistence.EntityManager;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Nested;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.data.domain.PageImpl;
-import org.springframework.data.domain.PageRequest;
-import org.springframework.data.domain.Sort;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.i18n.LocaleContextHolder;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.data.domain.Limit;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
 
 import com.epsum.epsumstock.category.Category;
 import com.epsum.epsumstock.customer.Customer;
 import com.epsum.epsumstock.customer.CustomerRepository;
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.order.InvalidCustomerException;
 import com.epsum.epsumstock.order.InvalidProductException;
 import com.epsum.epsumstock.order.Order;
@@ -23,19 +29,27 @@ import com.epsum.epsumstock.order.OrderRepository;
 import com.epsum.epsumstock.order.OrderService;
 import com.epsum.epsumstock.order.OrderStatus;
 import com.epsum.epsumstock.order.ProductWithInsufficientStockException;
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
 import com.epsum.epsumstock.product.Product;
 import com.epsum.epsumstock.product.ProductRepository;
 import com.epsum.epsumstock.user.User;
 import com.epsum.epsumstock.util.Document;
+import com.epsum.epsumstock.util.Search;
 
-import java.io.ByteArrayOutputStream;
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.Supplier;
+import java.util.stream.LongStream;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.AdditionalMatchers.aryEq;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
@@ -53,15 +67,39 @@ class OrderServiceTest {
     @Mock
     private CustomerRepository customerRepository;
 
+    @Mock
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private OrderNumberAllocator orderNumberAllocator;
+
+    @Mock
+    private OrderSubmissionRepository orderSubmissionRepository;
+
     @Mock
     private OrderDocumentGenerator orderDocumentGenerator;
 
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private DashboardCache dashboardCache;
+
+    @Mock
+    private ApplicationEventPublisher eventPublisher;
+
+    @Mock
+    private EntityManager entityManager;
+
+    @Spy
+    private TransactionTemplate transactionTemplate = new TransactionTemplate(mock(PlatformTransactionManager.class));
+
     private Customer customerA;
     private Customer customerB;
     private Product productA;
     private Product productB;
     private Product productC;
-    private final User user = new User();
+    private final User user = new User(1L, "user", "user@email.com", "password");
 
     @BeforeEach
     void setup() {
@@ -75,6 +113,11 @@ class OrderServiceTest {
     @Nested
     class CreateOrderTests {
 
+        @BeforeEach
+        void setup() {
+            lenient().when(productRepository.findAllByIdInAndOwner(anyCollection(), eq(user))).thenReturn(List.of(productA, productB));
+        }
+
         @Test
         void createOrder() {
             // given
@@ -85,14 +128,39 @@ class OrderServiceTest {
                     .item(10, productB)
                     .build();
             when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
+            when(orderNumberAllocator.nextNumber(user)).thenReturn(7);
             // when
             orderService.createOrder(order, user);
             // then
             assertThat(order.getOwner()).isEqualTo(user);
-            assertThat(productA.getQuantity()).isEqualTo(5);
-            assertThat(productB.getQuantity()).isEqualTo(10);
+            assertThat(order.getNumber()).isEqualTo(7);
+            assertThat(order.getItems()).extracting("product").containsExactly(productA, productB);
+            verify(stockReservationService, times(1)).reserve(order.getItems(), order.getId(), user);
+            verify(orderRepository, times(1)).save(order);
+            verify(outboxPublisher, times(1)).publish(eq(OutboxEventType.ORDER_CREATED), any(), eq(user), anyMap());
+            verify(dashboardCache, times(1)).invalidateAfterCommit(user);
+        }
+
+        @Test
+        void createOrderOnceForSameSubmissionToken() {
+            // given
+            var order = new OrderBuilder()
+                    .id(1L)
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .build();
+            when(orderSubmissionRepository.insertIfAbsent("token", 1L, null)).thenReturn(1, 0);
+            when(orderSubmissionRepository.findOrderId("token", 1L)).thenReturn(Optional.of(1L));
+            when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
+            // when
+            var createdOrderId = orderService.createOrder(order, "token", user);
+            var replayedOrderId = orderService.createOrder(order, "token", user);
+            // then
+            assertThat(createdOrderId).isEqualTo(1L);
+            assertThat(replayedOrderId).isEqualTo(1L);
+            verify(orderSubmissionRepository, times(1)).updateOrderId("token", 1L, 1L);
+            verify(stockReservationService, times(1)).reserve(order.getItems(), order.getId(), user);
             verify(orderRepository, times(1)).save(order);
         }
 
@@ -110,8 +178,7 @@ class OrderServiceTest {
             var exception = assertThatThrownBy(() -> orderService.createOrder(order, user));
             // then
             exception.isInstanceOf(InvalidCustomerException.class);
-            assertThat(productA.getQuantity()).isEqualTo(10);
-            assertThat(productB.getQuantity()).isEqualTo(20);
+            verify(stockReservationService, never()).reserve(anyList(), any(), any(User.class));
             verify(orderRepository, never()).save(any(Order.class));
         }
 
@@ -121,14 +188,14 @@ class OrderServiceTest {
             var order = new OrderBuilder()
                     .status(OrderStatus.UNPAID)
                     .customer(customerA)
-                    .item(5, productA)
+                    .item(5, productC)
                     .build();
             when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.empty());
             // when
             var exception = assertThatThrownBy(() -> orderService.createOrder(order, user));
             // then
             exception.isInstanceOf(InvalidProductException.class);
+            verify(stockReservationService, never()).reserve(anyList(), any(), any(User.class));
             verify(orderRepository, never()).save(any(Order.class));
         }
 
@@ -141,13 +208,12 @@ class OrderServiceTest {
                     .item(1000, productA)
                     .build();
             when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
+            doThrow(ProductWithInsufficientStockException.class).when(stockReservationService).reserve(order.getItems(), order.getId(), user);
             // when
             var exception = assertThatThrownBy(() -> orderService.createOrder(order, user));
             // then
             exception.isInstanceOf(ProductWithInsufficientStockException.class);
-            assertThat(productA.getQuantity()).isEqualTo(10);
-            verify(orderRepository, never()).save(any(Order.class));
+            verifyNoInteractions(outboxPublisher);
         }
 
     }
@@ -155,41 +221,63 @@ class OrderServiceTest {
     @Nested
     class ListOrdersTests {
 
-        private final List<Order> orders = List.of(
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build(),
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build(),
-                new OrderBuilder()
-                        .status(OrderStatus.UNPAID)
-                        .date(LocalDate.now())
-                        .customer(customerA)
-                        .item(5, productA)
-                        .item(10, productB)
-                        .build()
-        );
-
-        @Test
-        void listOrdersPaginated() {
-            // given
-            var pageable = PageRequest.of(0, 8, Sort.by("date"));
-            var expectedOrderPage = new PageImpl<>(orders, pageable, 3);
-            when(orderRepository.findAllByStatusAndOwner(OrderStatus.UNPAID, user, pageable)).thenReturn(expectedOrderPage);
-            // when
-            var actualOrderPage = orderService.listOrders(OrderStatus.UNPAID, 1, user);
-            // then
-            assertThat(actualOrderPage.getContent()).extracting("date").isSorted();
-            assertThat(actualOrderPage).usingRecursiveComparison().isEqualTo(expectedOrderPage);
+        private final LocalDate date = LocalDate.of(2024, 1, 1);
+
+        private List<OrderSummary> orders(long firstId, int count) {
+            return LongStream.range(firstId, firstId + count)
+                    .mapToObj(id -> new OrderSummary(id, (int) id, OrderStatus.UNPAID, date, "A", 5, new BigDecimal("5.00")))
+                    .toList();
+        }
+
+        @Test
+        void listFirstOrders() {
+            // given
+            var orders = orders(1L, 9);
+            when(orderRepository.findSummariesByStatusAndOwner(OrderStatus.UNPAID, user, Limit.of(9))).thenReturn(orders);
+            // when
+            var orderSlice = orderService.listOrders(OrderStatus.UNPAID, null, null, user);
+            // then
+            assertThat(orderSlice.orders()).extracting("id").containsExactly(1L, 2L, 3L, 4L, 5L, 6L, 7L, 8L);
+            assertThat(orderSlice.previous()).isNull();
+            assertThat(orderSlice.next()).isEqualTo(new OrderCursor(date, 8L));
+        }
+
+        @Test
+        void listOrdersAfterCursor() {
+            // given
+            var orders = orders(9L, 3);
+            when(orderRepository.findSummariesByStatusAndOwnerAfter(OrderStatus.UNPAID, user, date, 8L, Limit.of(9))).thenReturn(orders);
+            // when
+            var orderSlice = orderService.listOrders(OrderStatus.UNPAID, new OrderCursor(date, 8L), null, user);
+            // then
+            assertThat(orderSlice.orders()).extracting("id").containsExactly(9L, 10L, 11L);
+            assertThat(orderSlice.previous()).isEqualTo(new OrderCursor(date, 9L));
+            assertThat(orderSlice.next()).isNull();
+        }
+
+        @Test
+        void listOrdersBeforeCursor() {
+            // given
+            var orders = orders(1L, 9).reversed();
+            when(orderRepository.findSummariesByStatusAndOwnerBefore(OrderStatus.UNPAID, user, date, 10L, Limit.of(9))).thenReturn(orders);
+            // when
+            var orderSlice = orderService.listOrders(OrderStatus.UNPAID, null, new OrderCursor(date, 10L), user);
+            // then
+            assertThat(orderSlice.orders()).extracting("id").containsExactly(2L, 3L, 4L, 5L, 6L, 7L, 8L, 9L);
+            assertThat(orderSlice.previous()).isEqualTo(new OrderCursor(date, 2L));
+            assertThat(orderSlice.next()).isEqualTo(new OrderCursor(date, 9L));
+        }
+
+        @Test
+        void listNoOrders() {
+            // given
+            when(orderRepository.findSummariesByStatusAndOwner(OrderStatus.UNPAID, user, Limit.of(9))).thenReturn(List.of());
+            // when
+            var orderSlice = orderService.listOrders(OrderStatus.UNPAID, null, null, user);
+            // then
+            assertThat(orderSlice.orders()).isEmpty();
+            assertThat(orderSlice.previous()).isNull();
+            assertThat(orderSlice.next()).isNull();
         }
 
     }
@@ -201,27 +289,15 @@ class OrderServiceTest {
         void findOrders() {
             // given
             var expectedOrders = List.of(
-                    new OrderBuilder()
-                            .status(OrderStatus.UNPAID)
-                            .date(LocalDate.now())
-                            .customer(customerA)
-                            .item(5, productA)
-                            .item(10, productB)
-                            .build(),
-                    new OrderBuilder()
-                            .status(OrderStatus.UNPAID)
-                            .date(LocalDate.now())
-                            .customer(customerA)
-                            .item(5, productA)
-                            .item(10, productB)
-                            .build()
+                    new OrderSummary(1L, 1, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00")),
+                    new OrderSummary(2L, 2, OrderStatus.UNPAID, LocalDate.now(), "A", 15, new BigDecimal("25.00"))
             );
-            when(orderRepository.findAllByStatusAndCustomerNameContainingIgnoreCaseAndOwner(OrderStatus.UNPAID, "A", user))
+            when(orderRepository.searchSummariesByStatusAndCustomerName(OrderStatus.UNPAID, "%A%", "A", user, Search.LIMIT))
                     .thenReturn(expectedOrders);
             // when
             var actualOrders = orderService.findOrders(OrderStatus.UNPAID, "A", user);
             // then
-            assertThat(actualOrders).extracting("customer.name").isSorted();
+            assertThat(actualOrders).extracting("customerName").isSorted();
             assertThat(actualOrders).usingRecursiveComparison().isEqualTo(expectedOrders);
         }
 
@@ -280,14 +356,33 @@ class OrderServiceTest {
         @Test
         void printOrder() {
             // given
-            var expectedDocument = new Document("filename", new ByteArrayOutputStream(), 0);
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
-            when(orderDocumentGenerator.generateOrderDocument(order)).thenReturn(expectedDocument);
+            var expectedDocument = new Document("filename", new ByteArrayResource(new byte[0]), 0);
+            var version = new OrderDocumentVersion(1L, 1, order.getDate(), Instant.now());
+            when(orderRepository.findDocumentVersionByIdAndOwner(1L, user)).thenReturn(Optional.of(version));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version), any(), any())).thenReturn(CompletableFuture.completedFuture(expectedDocument));
             // when
-            var actualDocument = orderService.printOrder(1L, user);
+            var actualDocument = orderService.printOrder(1L, user).join();
             // then
             assertThat(actualDocument).usingRecursiveComparison().isEqualTo(expectedDocument);
-            verify(orderDocumentGenerator, times(1)).generateOrderDocument(order);
+            verify(orderRepository, never()).findByIdAndOwner(1L, user);
+        }
+
+        @Test
+        void printOrderLoadsOrderOnlyWhenDocumentIsGenerated() {
+            // given
+            var expectedDocument = new Document("filename", new ByteArrayResource(new byte[0]), 0);
+            var version = new OrderDocumentVersion(1L, 1, order.getDate(), Instant.now());
+            when(orderRepository.findDocumentVersionByIdAndOwner(1L, user)).thenReturn(Optional.of(version));
+            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderDocumentGenerator.submitOrderDocument(eq(version), any(), any())).thenAnswer(invocation -> {
+                assertThat(invocation.<Supplier<Order>>getArgument(1).get()).isSameAs(order);
+                return CompletableFuture.completedFuture(expectedDocument);
+            });
+            // when
+            var actualDocument = orderService.printOrder(1L, user).join();
+            // then
+            assertThat(actualDocument).isSameAs(expectedDocument);
+            verify(orderRepository, times(1)).findByIdAndOwner(1L, user);
         }
 
         @Test
@@ -311,6 +406,7 @@ class OrderServiceTest {
         void setup() {
             productA.setQuantity(5);
             productB.setQuantity(12);
+            lenient().when(productRepository.findAllByIdInAndOwner(anyCollection(), eq(user))).thenReturn(List.of(productA, productB, productC));
             order = new OrderBuilder()
                     .id(1L)
                     .status(OrderStatus.UNPAID)
@@ -331,20 +427,17 @@ class OrderServiceTest {
                     .item(8, productB)
                     .item(15, productC)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
-            when(productRepository.findByIdAndOwner(3L, user)).thenReturn(Optional.of(productC));
             // when
             orderService.updateOrder(1L, updatedOrder, user);
             // then
             assertThat(order.getOwner()).isEqualTo(user);
-            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner").isEqualTo(updatedOrder);
-            assertThat(productA.getQuantity()).isEqualTo(5);
-            assertThat(productB.getQuantity()).isEqualTo(12);
-            assertThat(productC.getQuantity()).isEqualTo(15);
+            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner", "totalQuantity", "totalAmount").isEqualTo(updatedOrder);
+            verify(stockReservationService, times(1)).reserve(Map.of(1L, 0, 2L, 0, 3L, 15), 1L, user);
             verify(orderRepository, times(1)).save(order);
+            verify(orderDocumentGenerator, times(1)).evictOrderDocuments(List.of(1L));
+            verify(eventPublisher, times(1)).publishEvent(new OrderPaidEvent(List.of(1L), user, LocaleContextHolder.getLocale()));
         }
 
         @Test
@@ -355,17 +448,14 @@ class OrderServiceTest {
                     .customer(customerB)
                     .item(5, productA)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
             // when
             orderService.updateOrder(1L, updatedOrder, user);
             // then
             assertThat(order.getOwner()).isEqualTo(user);
-            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner").isEqualTo(updatedOrder);
-            assertThat(productA.getQuantity()).isEqualTo(5);
-            assertThat(productB.getQuantity()).isEqualTo(20);
+            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner", "totalQuantity", "totalAmount").isEqualTo(updatedOrder);
+            verify(stockReservationService, times(1)).reserve(Map.of(1L, 0, 2L, -8), 1L, user);
             verify(orderRepository, times(1)).save(order);
         }
 
@@ -378,20 +468,43 @@ class OrderServiceTest {
                     .item(3, productA)
                     .item(14, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
             // when
             orderService.updateOrder(1L, updatedOrder, user);
             // then
             assertThat(order.getOwner()).isEqualTo(user);
-            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner").isEqualTo(updatedOrder);
-            assertThat(productA.getQuantity()).isEqualTo(7);
-            assertThat(productB.getQuantity()).isEqualTo(6);
+            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner", "totalQuantity", "totalAmount").isEqualTo(updatedOrder);
+            verify(stockReservationService, times(1)).reserve(Map.of(1L, -2, 2L, 6), 1L, user);
+            assertThat(order.getQuantity()).isEqualTo(17);
+            assertThat(order.getAmount()).isEqualTo(new BigDecimal("31.00"));
             verify(orderRepository, times(1)).save(order);
         }
 
+        @Test
+        void updateOrderMergesItemsInPlace() {
+            // given
+            var itemA = order.getItems().get(0);
+            var itemB = order.getItems().get(1);
+            var updatedOrder = new OrderBuilder()
+                    .status(OrderStatus.PAID)
+                    .customer(customerB)
+                    .item(15, productC)
+                    .item(14, productB)
+                    .build();
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
+            // when
+            orderService.updateOrder(1L, updatedOrder, user);
+            // then
+            assertThat(order.getItems()).doesNotContain(itemA);
+            assertThat(order.getItems().get(1)).isSameAs(itemB);
+            assertThat(itemB.getQuantity()).isEqualTo(14);
+            assertThat(itemB.getIndex()).isEqualTo(1);
+            assertThat(order.getItems().get(0).getProduct()).isEqualTo(productC);
+            assertThat(order.getItems().get(0).getOrder()).isSameAs(order);
+        }
+
         @Test
         void updateOrderWithSameItemsAndQuantitiesButProductsWithEmptyStockDoesNotThrowException() {
             // given
@@ -403,17 +516,15 @@ class OrderServiceTest {
                     .item(5, productA)
                     .item(8, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
             // when
             orderService.updateOrder(1L, updatedOrder, user);
             // then
             assertThat(order.getOwner()).isEqualTo(user);
-            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner").isEqualTo(updatedOrder);
-            assertThat(productA.getQuantity()).isEqualTo(0);
-            assertThat(productB.getQuantity()).isEqualTo(0);
+            assertThat(order).usingRecursiveComparison().ignoringFields("id", "owner", "totalQuantity", "totalAmount").isEqualTo(updatedOrder);
+            verify(stockReservationService, never()).reserve(anyMap(), any(), any(User.class));
+            verify(productRepository, never()).findAllByIdInAndOwner(anyCollection(), any(User.class));
             verify(orderRepository, times(1)).save(order);
         }
 
@@ -426,7 +537,7 @@ class OrderServiceTest {
                     .item(3, productA)
                     .item(10, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.empty());
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.empty());
             // when
             var exception = assertThatThrownBy(() -> orderService.updateOrder(1L, updatedOrder, user));
             // then
@@ -445,7 +556,7 @@ class OrderServiceTest {
                     .item(3, productA)
                     .item(10, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(false);
             // when
             var exception = assertThatThrownBy(() -> orderService.updateOrder(1L, updatedOrder, user));
@@ -465,9 +576,9 @@ class OrderServiceTest {
                     .item(3, productA)
                     .item(10, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.empty());
+            doThrow(InvalidProductException.class).when(stockReservationService).reserve(anyMap(), any(), eq(user));
             // when
             var exception = assertThatThrownBy(() -> orderService.updateOrder(1L, updatedOrder, user));
             // then
@@ -484,9 +595,10 @@ class OrderServiceTest {
                     .item(100, productA)
                     .item(100, productB)
                     .build();
-            when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
             when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
+            doThrow(ProductWithInsufficientStockException.class).when(stockReservationService).reserve(anyMap(), any(), eq(user));
+            // when
             var exception = assertThatThrownBy(() -> orderService.updateOrder(1L, updatedOrder, user));
             // then
             exception.isInstanceOf(ProductWithInsufficientStockException.class);
@@ -497,6 +609,175 @@ class OrderServiceTest {
 
     }
 
+    @Nested
+    class UpdateOrderItemsTests {
+
+        private Order order;
+
+        @BeforeEach
+        void setup() {
+            lenient().when(productRepository.findAllByIdInAndOwner(anyCollection(), eq(user))).thenReturn(List.of(productA, productB, productC));
+            order = new OrderBuilder()
+                    .id(1L)
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .item(8, productB)
+                    .owner(user)
+                    .build();
+            order.calculateTotals();
+        }
+
+        @Test
+        void updateOrderItemsAppliesPageDeltas() {
+            // given
+            var itemA = order.getItems().get(0);
+            var itemB = order.getItems().get(1);
+            var updatedOrder = new OrderBuilder()
+                    .status(OrderStatus.PAID)
+                    .customer(customerB)
+                    .item(3, productA)
+                    .item(15, productC)
+                    .build();
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(customerRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
+            when(orderRepository.findItemsByOrderIdAndProductIdIn(eq(1L), anyCollection())).thenReturn(List.of(itemA, itemB));
+            when(orderRepository.findLastItemIndexByOrderId(1L)).thenReturn(1);
+            // when
+            orderService.updateOrderItems(1L, updatedOrder, List.of(1L, 2L), user);
+            // then
+            verify(stockReservationService, times(1)).reserve(Map.of(1L, -2, 2L, -8, 3L, 15), 1L, user);
+            verify(orderRepository, times(1)).deleteItemsByOrderIdAndProductIdIn(1L, List.of(2L));
+            verify(orderRepository, times(1)).insertItems(eq(1L), aryEq(new Long[] { 3L }), aryEq(new Integer[] { 15 }), eq(2));
+            assertThat(itemA.getQuantity()).isEqualTo(3);
+            assertThat(order.getQuantity()).isEqualTo(18);
+            assertThat(order.getAmount()).isEqualByComparingTo("48.00");
+            assertThat(order.getStatus()).isEqualTo(OrderStatus.PAID);
+            assertThat(order.getCustomer()).isEqualTo(customerB);
+            verify(orderRepository, times(1)).save(order);
+            verify(orderDocumentGenerator, times(1)).evictOrderDocuments(List.of(1L));
+            verify(eventPublisher, times(1)).publishEvent(new OrderPaidEvent(List.of(1L), user, LocaleContextHolder.getLocale()));
+        }
+
+        @Test
+        void updateOrderItemsWithUnchangedPageDoesNotChangeStock() {
+            // given
+            var itemA = order.getItems().get(0);
+            var updatedOrder = new OrderBuilder()
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .build();
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
+            when(orderRepository.findItemsByOrderIdAndProductIdIn(eq(1L), anyCollection())).thenReturn(List.of(itemA));
+            // when
+            orderService.updateOrderItems(1L, updatedOrder, List.of(1L), user);
+            // then
+            verify(stockReservationService, times(1)).reserve(Map.of(1L, 0), 1L, user);
+            verify(orderRepository, never()).deleteItemsByOrderIdAndProductIdIn(anyLong(), anyCollection());
+            verify(orderRepository, never()).insertItems(anyLong(), any(), any(), anyInt());
+            assertThat(order.getQuantity()).isEqualTo(13);
+            assertThat(order.getAmount()).isEqualByComparingTo("21.00");
+        }
+
+        @Test
+        void doNotUpdateOrderItemsWithProductFromAnotherPage() {
+            // given
+            var updatedOrder = new OrderBuilder()
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .item(1, productB)
+                    .build();
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
+            when(customerRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
+            when(orderRepository.findItemsByOrderIdAndProductIdIn(eq(1L), anyCollection())).thenReturn(order.getItems());
+            // when
+            var exception = assertThatThrownBy(() -> orderService.updateOrderItems(1L, updatedOrder, List.of(1L), user));
+            // then
+            exception.isInstanceOf(DuplicatedOrderItemException.class);
+            verify(stockReservationService, never()).reserve(anyMap(), any(), any(User.class));
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+
+        @Test
+        void doNotUpdateItemsOfOrderThatDoesNotExists() {
+            // given
+            var updatedOrder = new OrderBuilder()
+                    .status(OrderStatus.UNPAID)
+                    .customer(customerA)
+                    .item(5, productA)
+                    .build();
+            when(orderRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.empty());
+            // when
+            var exception = assertThatThrownBy(() -> orderService.updateOrderItems(1L, updatedOrder, List.of(1L), user));
+            // then
+            exception.isInstanceOf(OrderNotFoundException.class);
+            verify(orderRepository, never()).findItemsByOrderIdAndProductIdIn(anyLong(), anyCollection());
+            verify(orderRepository, never()).save(any(Order.class));
+        }
+
+    }
+
+    @Nested
+    class UpdateOrderStatusTests {
+
+        @Test
+        void updateOrderStatusByIds() {
+            // given
+            when(orderRepository.updateStatusByIds(List.of(1L, 2L), "PAID", 1L)).thenReturn(List.of(1L, 2L));
+            // when
+            var updatedOrders = orderService.updateOrderStatus(List.of(1L, 2L), OrderStatus.PAID, user);
+            // then
+            assertThat(updatedOrders).isEqualTo(2);
+            verify(stockReservationService, never()).reserve(anyMap(), any(), any(User.class));
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.ORDER_UPDATED, 1L, user, Map.of("status", OrderStatus.PAID));
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.ORDER_UPDATED, 2L, user, Map.of("status", OrderStatus.PAID));
+            verify(orderDocumentGenerator, times(1)).evictOrderDocuments(List.of(1L, 2L));
+            verify(eventPublisher, times(1)).publishEvent(new OrderPaidEvent(List.of(1L, 2L), user, LocaleContextHolder.getLocale()));
+            var inOrder = inOrder(entityManager, orderRepository);
+            inOrder.verify(entityManager, times(1)).flush();
+            inOrder.verify(orderRepository, times(1)).updateStatusByIds(List.of(1L, 2L), "PAID", 1L);
+            inOrder.verify(entityManager, times(1)).clear();
+        }
+
+        @Test
+        void updateOrderStatusToUnpaidDoesNotPrerenderDocuments() {
+            // given
+            when(orderRepository.updateStatusByIds(List.of(1L, 2L), "UNPAID", 1L)).thenReturn(List.of(1L, 2L));
+            // when
+            orderService.updateOrderStatus(List.of(1L, 2L), OrderStatus.UNPAID, user);
+            // then
+            verify(orderDocumentGenerator, times(1)).evictOrderDocuments(List.of(1L, 2L));
+            verifyNoInteractions(eventPublisher);
+        }
+
+        @Test
+        void updateOrderStatusWithoutIdsDoesNothing() {
+            // when
+            var updatedOrders = orderService.updateOrderStatus(List.of(), OrderStatus.PAID, user);
+            // then
+            assertThat(updatedOrders).isZero();
+            verifyNoInteractions(orderRepository);
+        }
+
+        @Test
+        void updateOrderStatusByDateRange() {
+            // given
+            var startDate = LocalDate.of(2024, 1, 1);
+            var endDate = LocalDate.of(2024, 1, 31);
+            when(orderRepository.updateStatusByDateRange("UNPAID", startDate, endDate, "PAID", 1L)).thenReturn(List.of(1L, 2L, 3L, 4L, 5L));
+            // when
+            var updatedOrders = orderService.updateOrderStatus(OrderStatus.UNPAID, startDate, endDate, OrderStatus.PAID, user);
+            // then
+            assertThat(updatedOrders).isEqualTo(5);
+            verify(outboxPublisher, times(5)).publish(eq(OutboxEventType.ORDER_UPDATED), anyLong(), eq(user), anyMap());
+            verify(entityManager, times(1)).clear();
+        }
+
+    }
+
     @Nested
     class DeleteOrderTests {
 
@@ -518,14 +799,12 @@ class OrderServiceTest {
         void deleteUnpaidOrderResetProductStock() {
             // given
             when(orderRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(order));
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(productA));
-            when(productRepository.findByIdAndOwner(2L, user)).thenReturn(Optional.of(productB));
             // when
             orderService.deleteOrder(1L, user);
             // then
-            assertThat(productA.getQuantity()).isEqualTo(10);
-            assertThat(productB.getQuantity()).isEqualTo(20);
+            verify(stockReservationService, times(1)).release(order.getItems(), order.getId(), user);
             verify(orderRepository, times(1)).delete(order);
+            verify(outboxPublisher, times(1)).publish(eq(OutboxEventType.ORDER_DELETED), any(), eq(user), anyMap());
         }
 
         @Test
@@ -539,6 +818,7 @@ class OrderServiceTest {
             assertThat(productA.getQuantity()).isEqualTo(5);
             assertThat(productB.getQuantity()).isEqualTo(12);
             verify(productRepository, never()).deleteById(anyLong());
+            verify(stockReservationService, never()).release(anyList(), any(), any(User.class));
             verify(orderRepository, times(1)).delete(order);
         }
 
@@ -18,6 +18,7 @@ class OrderTest {
                 .item(4, new Product(null, null, null, "10"))
                 .build();
         // when
+        order.calculateTotals();
         var amount = order.getAmount();
         // then
         assertThat(amount).isEqualTo(new BigDecimal("80"));
@@ -27,10 +28,11 @@ class OrderTest {
     void getQuantity() {
         // given
         var order = new OrderBuilder()
-                .item(2, null)
-                .item(4, null)
+                .item(2, new Product(null, null, null, "20"))
+                .item(4, new Product(null, null, null, "10"))
                 .build();
         // when
+        order.calculateTotals();
         var quantity = order.getQuantity();
         // then
         assertThat(quantity).isEqualTo(6);
@@ -0,0 +1,154 @@
+package com.epsum.epsumstock.order;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import com.epsum.epsumstock.category.Category;
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
+import com.epsum.epsumstock.product.Product;
+import com.epsum.epsumstock.product.ProductRepository;
+import com.epsum.epsumstock.product.ProductTypeahead;
+import com.epsum.epsumstock.user.User;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.Map;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class StockReservationServiceTest {
+
+    @InjectMocks
+    private StockReservationService stockReservationService;
+
+    @Mock
+    private ProductRepository productRepository;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private ProductTypeahead productTypeahead;
+
+    private Product productA;
+    private Product productB;
+    private final User user = new User(1L, "user", "user@email.com", "password");
+
+    @BeforeEach
+    void setup() {
+        productA = new Product(1L, "A", new Category("A"), 10, new BigDecimal("1.00"));
+        productB = new Product(2L, "B", new Category("B"), 20, new BigDecimal("2.00"));
+    }
+
+    @Nested
+    class ReserveTests {
+
+        @Test
+        void reserveLoadsAllProductsAtOnceAndDecreasesStockInOneGuardedStatement() {
+            // given
+            var items = List.of(new OrderItem(10, productB), new OrderItem(5, productA));
+            when(productRepository.findAllByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(productA, productB));
+            when(productRepository.reserveQuantities(any(Long[].class), any(Integer[].class), anyString(), anyLong(), anyLong())).thenReturn(2);
+            // when
+            stockReservationService.reserve(items, 1L, user);
+            // then
+            verify(productRepository, times(1)).findAllByIdInAndOwner(anyCollection(), any(User.class));
+            verify(productRepository, times(1)).reserveQuantities(new Long[] { 1L, 2L }, new Integer[] { 5, 10 }, "ORDER_CREATED", 1L, 1L);
+            verify(productRepository, never()).findByIdAndOwner(anyLong(), any(User.class));
+        }
+
+        @Test
+        void reserveNetQuantitiesOnlyChecksProductsTakingStock() {
+            // given
+            when(productRepository.findAllByIdInAndOwner(List.of(2L), user)).thenReturn(List.of(productB));
+            when(productRepository.reserveQuantities(any(Long[].class), any(Integer[].class), anyString(), anyLong(), anyLong())).thenReturn(2);
+            // when
+            stockReservationService.reserve(Map.of(1L, -5, 2L, 10, 3L, 0), 1L, user);
+            // then
+            verify(productRepository, times(1)).reserveQuantities(new Long[] { 1L, 2L }, new Integer[] { -5, 10 }, "ORDER_UPDATED", 1L, 1L);
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.STOCK_CHANGED, 1L, user, Map.of("quantityChange", 5));
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.STOCK_CHANGED, 2L, user, Map.of("quantityChange", -10));
+            verify(productTypeahead, times(1)).refreshAfterCommit(List.of(1L, 2L), user);
+        }
+
+        @Test
+        void doNotReserveNonexistentProducts() {
+            // given
+            var items = List.of(new OrderItem(5, productA), new OrderItem(10, productB));
+            when(productRepository.findAllByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(productA));
+            // when
+            var exception = assertThatThrownBy(() -> stockReservationService.reserve(items, 1L, user));
+            // then
+            exception.isInstanceOf(InvalidProductException.class);
+            verify(productRepository, never()).reserveQuantities(any(), any(), any(), any(), anyLong());
+        }
+
+        @Test
+        void doNotReserveProductsWithInsufficientStock() {
+            // given
+            var items = List.of(new OrderItem(5, productA), new OrderItem(1000, productB));
+            when(productRepository.findAllByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(productA, productB));
+            // when
+            var exception = assertThatThrownBy(() -> stockReservationService.reserve(items, 1L, user));
+            // then
+            exception.isInstanceOf(ProductWithInsufficientStockException.class);
+            verify(productRepository, never()).reserveQuantities(any(), any(), any(), any(), anyLong());
+        }
+
+        @Test
+        void doNotReserveWhenGuardedUpdateSkipsProducts() {
+            // given
+            var items = List.of(new OrderItem(5, productA), new OrderItem(10, productB));
+            when(productRepository.findAllByIdInAndOwner(List.of(1L, 2L), user)).thenReturn(List.of(productA, productB));
+            when(productRepository.reserveQuantities(any(Long[].class), any(Integer[].class), anyString(), anyLong(), anyLong())).thenReturn(1);
+            // when
+            var exception = assertThatThrownBy(() -> stockReservationService.reserve(items, 1L, user));
+            // then
+            exception.isInstanceOf(ProductWithInsufficientStockException.class);
+            verifyNoInteractions(outboxPublisher, productTypeahead);
+        }
+
+        @Test
+        void reserveWithoutItemsDoesNotQueryProducts() {
+            // when
+            stockReservationService.reserve(List.of(), 1L, user);
+            // then
+            verifyNoInteractions(productRepository);
+        }
+
+    }
+
+    @Nested
+    class ReleaseTests {
+
+        @Test
+        void releaseIncreasesStockInOneStatement() {
+            // given
+            var items = List.of(new OrderItem(5, productA), new OrderItem(10, productB));
+            when(productRepository.reserveQuantities(any(Long[].class), any(Integer[].class), anyString(), anyLong(), anyLong())).thenReturn(2);
+            // when
+            stockReservationService.release(items, 1L, user);
+            // then
+            verify(productRepository, times(1)).reserveQuantities(new Long[] { 1L, 2L }, new Integer[] { -5, -10 }, "ORDER_DELETED", 1L, 1L);
+            verify(productRepository, never()).findAllByIdInAndOwner(anyCollection(), any(User.class));
+        }
+
+        @Test
+        void releaseWithoutItemsDoesNotUpdateProducts() {
+            // when
+            stockReservationService.release(List.of(), 1L, user);
+            // then
+            verifyNoInteractions(productRepository);
+        }
+
+    }
+
+}
@@ -0,0 +1,76 @@
+package com.epsum.epsumstock.outbox;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxEventRepository outboxEventRepository;
+
+    @Mock
+    private OutboxSink sinkA;
+
+    @Mock
+    private OutboxSink sinkB;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setup() {
+        outboxRelay = new OutboxRelay(outboxEventRepository, List.of(sinkA, sinkB), Duration.ofMinutes(5));
+    }
+
+    @Test
+    void relayDeliversBatchToAllSinksThenDeletesIt() {
+        // given
+        var events = List.of(
+                new OutboxEvent(OutboxEventType.ORDER_CREATED, 1L, 1L, "{}"),
+                new OutboxEvent(OutboxEventType.STOCK_CHANGED, 2L, 1L, "{\"quantityChange\":-5}")
+        );
+        when(outboxEventRepository.claimNextEvents(OutboxRelay.BATCH_SIZE, 300L)).thenReturn(events);
+        // when
+        outboxRelay.relay();
+        // then
+        var inOrder = inOrder(sinkA, sinkB, outboxEventRepository);
+        inOrder.verify(sinkA, times(1)).deliver(events);
+        inOrder.verify(sinkB, times(1)).deliver(events);
+        inOrder.verify(outboxEventRepository, times(1)).deleteAllInBatch(events);
+    }
+
+    @Test
+    void relayWithoutEventsDoesNothing() {
+        // given
+        when(outboxEventRepository.claimNextEvents(OutboxRelay.BATCH_SIZE, 300L)).thenReturn(List.of());
+        // when
+        outboxRelay.relay();
+        // then
+        verifyNoInteractions(sinkA, sinkB);
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyIterable());
+    }
+
+    @Test
+    void doNotDeleteEventsWhenSinkFails() {
+        // given
+        var events = List.of(new OutboxEvent(OutboxEventType.ORDER_DELETED, 1L, 1L, "{}"));
+        when(outboxEventRepository.claimNextEvents(OutboxRelay.BATCH_SIZE, 300L)).thenReturn(events);
+        doThrow(new IllegalStateException()).when(sinkA).deliver(events);
+        // when
+        var exception = assertThatThrownBy(() -> outboxRelay.relay());
+        // then
+        exception.isInstanceOf(IllegalStateException.class);
+        verify(sinkB, never()).deliver(anyList());
+        verify(outboxEventRepository, never()).deleteAllInBatch(anyIterable());
+    }
+
+}
@@ -44,6 +44,9 @@ class ProductControllerTest {
     @MockBean
     private ProductService productService;
 
+    @MockBean
+    private ProductTypeahead productTypeahead;
+
     @MockBean
     private CategoryService categoryService;
 
@@ -203,6 +206,35 @@ class ProductControllerTest {
 
     }
 
+    @Nested
+    class SuggestProductsTests {
+
+        @Test
+        void suggestProducts() throws Exception {
+            // given
+            var suggestions = List.of(
+                    new ProductSuggestion(1L, "A", new BigDecimal("1.00"), 10),
+                    new ProductSuggestion(2L, "Ab", new BigDecimal("2.00"), 20)
+            );
+            when(productTypeahead.suggest(anyString(), any(User.class))).thenReturn(suggestions);
+            // when
+            var result = client.perform(get("/products/suggestions")
+                    .param("query", "a")
+            );
+            // then
+            result.andExpectAll(
+                    status().isOk(),
+                    jsonPath("$[0].id").value(1),
+                    jsonPath("$[0].name").value("A"),
+                    jsonPath("$[0].price").value(1.00),
+                    jsonPath("$[0].quantity").value(10),
+                    jsonPath("$[1].name").value("Ab")
+            );
+            verify(productTypeahead, times(1)).suggest(eq("a"), any(User.class));
+        }
+
+    }
+
     @Nested
     class UpdateProductTests {
 
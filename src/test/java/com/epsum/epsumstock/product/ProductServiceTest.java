@@ -12,7 +12,10 @@ import org.springframework.data.domain.Sort;
 
 import com.epsum.epsumstock.category.Category;
 import com.epsum.epsumstock.category.CategoryRepository;
+import com.epsum.epsumstock.dashboard.DashboardCache;
 import com.epsum.epsumstock.order.OrderRepository;
+import com.epsum.epsumstock.outbox.OutboxEventType;
+import com.epsum.epsumstock.outbox.OutboxPublisher;
 import com.epsum.epsumstock.product.InvalidCategoryException;
 import com.epsum.epsumstock.product.Product;
 import com.epsum.epsumstock.product.ProductDeletionNotAllowedException;
@@ -21,9 +24,13 @@ import com.epsum.epsumstock.product.ProductNotFoundException;
 import com.epsum.epsumstock.product.ProductRepository;
 import com.epsum.epsumstock.product.ProductService;
 import com.epsum.epsumstock.user.User;
+import com.epsum.epsumstock.util.Search;
 
 import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -45,6 +52,18 @@ class ProductServiceTest {
     @Mock
     private OrderRepository orderRepository;
 
+    @Mock
+    private StockMovementRepository stockMovementRepository;
+
+    @Mock
+    private OutboxPublisher outboxPublisher;
+
+    @Mock
+    private ProductTypeahead productTypeahead;
+
+    @Mock
+    private DashboardCache dashboardCache;
+
     private final User user = new User();
 
     @Nested
@@ -61,6 +80,8 @@ class ProductServiceTest {
             // then
             assertThat(product.getOwner()).isEqualTo(user);
             verify(productRepository, times(1)).save(product);
+            verify(stockMovementRepository, times(1)).save(any(StockMovement.class));
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.STOCK_CHANGED, null, user, Map.of("quantityChange", 1));
         }
 
         @Test
@@ -136,7 +157,7 @@ class ProductServiceTest {
                     new Product("A", new Category("A"), 1, "1.00"),
                     new Product("Aa", new Category("Aa"), 2, "2.00")
             );
-            when(productRepository.findAllByNameContainingIgnoreCaseAndOwner("A", user)).thenReturn(expectedProducts);
+            when(productRepository.searchByName("%A%", "A", user, Search.LIMIT)).thenReturn(expectedProducts);
             // when
             var actualProducts = productService.findProducts("A", user);
             // then
@@ -172,6 +193,34 @@ class ProductServiceTest {
 
     }
 
+    @Nested
+    class FindProductStockTests {
+
+        @Test
+        void findProductStockAtEndOfDay() {
+            // given
+            var date = LocalDate.of(2024, 1, 15);
+            when(productRepository.existsByIdAndOwner(1L, user)).thenReturn(true);
+            when(stockMovementRepository.findStockAt(1L, LocalDateTime.of(2024, 1, 16, 0, 0))).thenReturn(42);
+            // when
+            var stock = productService.findProductStock(1L, date, user);
+            // then
+            assertThat(stock).isEqualTo(42);
+        }
+
+        @Test
+        void doNotFindStockOfProductThatDoesNotExists() {
+            // given
+            when(productRepository.existsByIdAndOwner(1L, user)).thenReturn(false);
+            // when
+            var exception = assertThatThrownBy(() -> productService.findProductStock(1L, LocalDate.of(2024, 1, 15), user));
+            // then
+            exception.isInstanceOf(ProductNotFoundException.class);
+            verifyNoInteractions(stockMovementRepository);
+        }
+
+    }
+
     @Nested
     class UpdateProductTests {
 
@@ -181,7 +230,7 @@ class ProductServiceTest {
             var product = new Product("A", new Category("A"), 1,"1.00");
             product.setOwner(user);
             var updatedProduct = new Product("B", new Category(2L, "B"), 2, "2.00");
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
+            when(productRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
             when(productRepository.existsByNameAndOwner("B", user)).thenReturn(false);
             when(categoryRepository.existsByIdAndOwner(2L, user)).thenReturn(true);
             // when
@@ -190,13 +239,15 @@ class ProductServiceTest {
             assertThat(product).usingRecursiveComparison().ignoringFields("owner").isEqualTo(updatedProduct);
             assertThat(product.getOwner()).isEqualTo(user);
             verify(productRepository, times(1)).save(product);
+            verify(stockMovementRepository, times(1)).save(any(StockMovement.class));
+            verify(outboxPublisher, times(1)).publish(OutboxEventType.STOCK_CHANGED, null, user, Map.of("quantityChange", 1));
         }
 
         @Test
         void doNotUpdateProductThatDoesNotExists() {
             // given
             var updatedProduct = new Product("B", new Category(2L, "B"), 2, "2.00");
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.empty());
+            when(productRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.empty());
             // when
             var exception = assertThatThrownBy(() -> productService.updateProduct(1L, updatedProduct, user));
             // then
@@ -209,7 +260,7 @@ class ProductServiceTest {
             // given
             var product = new Product("A", new Category("A"), 1,"1.00");
             var updatedProduct = new Product("B", new Category(2L, "B"), 2, "2.00");
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
+            when(productRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
             when(productRepository.existsByNameAndOwner("B", user)).thenReturn(true);
             // when
             var exception = assertThatThrownBy(() -> productService.updateProduct(1L, updatedProduct, user));
@@ -223,7 +274,7 @@ class ProductServiceTest {
             // given
             var product = new Product("A", new Category("A"), 1,"1.00");
             var updatedProduct = new Product("B", new Category(2L, "B"), 2, "2.00");
-            when(productRepository.findByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
+            when(productRepository.findForUpdateByIdAndOwner(1L, user)).thenReturn(Optional.of(product));
             when(productRepository.existsByNameAndOwner("B", user)).thenReturn(false);
             when(categoryRepository.existsByIdAndOwner(2L, user)).thenReturn(false);
             // when
@@ -247,6 +298,7 @@ class ProductServiceTest {
             productService.deleteProduct(1L, user);
             // then
             verify(productRepository, times(1)).deleteById(1L);
+            verify(dashboardCache, times(1)).invalidateAfterCommit(user);
         }
 
         @Test
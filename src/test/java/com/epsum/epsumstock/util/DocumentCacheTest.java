@@ -0,0 +1,183 @@
+package com.epsum.epsumstock.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.InputStreamResource;
+import org.springframework.util.unit.DataSize;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class DocumentCacheTest {
+
+    @TempDir
+    private Path directory;
+
+    private final AtomicInteger generations = new AtomicInteger();
+
+    private DocumentCache documentCache;
+
+    @BeforeEach
+    void setup() {
+        documentCache = new DocumentCache(directory, DataSize.ofBytes(8), Duration.ofDays(1));
+    }
+
+    @Nested
+    class GetTests {
+
+        @Test
+        void getGeneratesDocumentOnlyOnce() throws IOException {
+            // when
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            var document = documentCache.get("order-1", "v1", "filename", generator("abc"));
+            // then
+            assertThat(generations).hasValue(1);
+            assertThat(document.filename()).isEqualTo("filename");
+            assertThat(document.content()).isInstanceOf(ByteArrayResource.class);
+            assertThat(document.content().getContentAsByteArray()).isEqualTo("abc".getBytes());
+        }
+
+        @Test
+        void getServesDocumentsTooLargeForHeapFromDisk() throws IOException {
+            // when
+            documentCache.get("order-1", "v1", "filename", generator("abcdefghijkl"));
+            var document = documentCache.get("order-1", "v1", "filename", generator("abcdefghijkl"));
+            // then
+            assertThat(generations).hasValue(1);
+            assertThat(document.content()).isInstanceOf(InputStreamResource.class);
+            assertThat(document.size()).isEqualTo(12);
+            assertThat(document.content().getContentAsByteArray()).isEqualTo("abcdefghijkl".getBytes());
+        }
+
+        @Test
+        void getMovesSpilledDocumentsIntoCache(@TempDir Path spillDirectory) throws IOException {
+            // given
+            var spilledFile = Files.writeString(spillDirectory.resolve("document.pdf"), "abc");
+            // when
+            var document = documentCache.get("order-1", "v1", "filename", () -> new Document("generated", new FileSystemResource(spilledFile), 3));
+            // then
+            assertThat(spilledFile).doesNotExist();
+            assertThat(directory.resolve("order-1_v1.pdf")).exists();
+            assertThat(document.content().getContentAsByteArray()).isEqualTo("abc".getBytes());
+            assertThat(document.size()).isEqualTo(3);
+        }
+
+        @Test
+        void getRegeneratesDocumentForNewVersion() {
+            // when
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            documentCache.get("order-1", "v2", "filename", generator("abd"));
+            // then
+            assertThat(generations).hasValue(2);
+        }
+
+        @Test
+        void getReusesDiskEntriesAfterRestart() {
+            // given
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            var restartedDocumentCache = new DocumentCache(directory, DataSize.ofBytes(8), Duration.ofDays(1));
+            // when
+            var document = restartedDocumentCache.get("order-1", "v1", "filename", generator("abc"));
+            // then
+            assertThat(generations).hasValue(1);
+            assertThat(document.content()).isInstanceOf(InputStreamResource.class);
+        }
+
+    }
+
+    @Nested
+    class FindTests {
+
+        @Test
+        void findServesDiskDocumentEvictedBeforeItIsStreamed() throws IOException {
+            // given
+            documentCache.get("order-1", "v1", "filename", generator("abcdefghijkl"));
+            var document = documentCache.find("order-1", "v1", "filename").orElseThrow();
+            // when
+            documentCache.evict("order-1");
+            // then
+            assertThat(document.content().getContentAsByteArray()).isEqualTo("abcdefghijkl".getBytes());
+        }
+
+        @Test
+        void findServesHeapDocumentWithoutCopyingIt() {
+            // given
+            var content = "abc".getBytes();
+            documentCache.put("order-1", "v1", new Document("generated", new ByteArrayResource(content), content.length));
+            // when
+            var document = documentCache.find("order-1", "v1", "filename").orElseThrow();
+            // then
+            assertThat(document.content()).isInstanceOf(ByteArrayResource.class);
+            assertThat(((ByteArrayResource) document.content()).getByteArray()).isSameAs(content);
+        }
+
+        @Test
+        void containsReportsOnlyCachedVersions() {
+            // given
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            // then
+            assertThat(documentCache.contains("order-1", "v1")).isTrue();
+            assertThat(documentCache.contains("order-1", "v2")).isFalse();
+        }
+
+    }
+
+    @Nested
+    class EvictTests {
+
+        @Test
+        void evictRemovesAllVersionsOfDocument() throws IOException {
+            // given
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            documentCache.get("order-1", "v2", "filename", generator("abd"));
+            documentCache.get("order-10", "v1", "filename", generator("abe"));
+            // when
+            documentCache.evict("order-1");
+            // then
+            try (var files = Files.list(directory)) {
+                assertThat(files).containsExactly(directory.resolve("order-10_v1.pdf"));
+            }
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            documentCache.get("order-10", "v1", "filename", generator("abe"));
+            assertThat(generations).hasValue(4);
+        }
+
+        @Test
+        void deleteExpiredRemovesUnusedFiles() throws IOException {
+            // given
+            documentCache.get("order-1", "v1", "filename", generator("abc"));
+            try (var files = Files.list(directory)) {
+                for (var file : files.toList()) {
+                    Files.setLastModifiedTime(file, FileTime.from(Instant.now().minus(Duration.ofDays(2))));
+                }
+            }
+            // when
+            documentCache.deleteExpired();
+            // then
+            try (var files = Files.list(directory)) {
+                assertThat(files).isEmpty();
+            }
+        }
+
+    }
+
+    private Supplier<Document> generator(String content) {
+        return () -> {
+            generations.incrementAndGet();
+            return new Document("generated", new ByteArrayResource(content.getBytes()), content.length());
+        };
+    }
+
+}
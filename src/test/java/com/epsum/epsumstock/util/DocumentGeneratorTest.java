@@ -0,0 +1,98 @@
+package com.epsum.epsumstock.util;
+
+import com.lowagie.text.pdf.PdfReader;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.util.unit.DataSize;
+import org.thymeleaf.TemplateEngine;
+
+import java.io.IOException;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+
+class DocumentGeneratorTest {
+
+    private static final String HTML = "<html><body><p>content</p></body></html>";
+
+    @TempDir
+    private Path directory;
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+
+    private DocumentGenerator documentGenerator;
+
+    @BeforeEach
+    void setup() {
+        documentGenerator = new DocumentGenerator(new TemplateEngine(), meterRegistry, 1, 1, Duration.ofSeconds(30), DataSize.ofMegabytes(1), directory);
+    }
+
+    @AfterEach
+    void teardown() {
+        documentGenerator.shutdown();
+    }
+
+    @Nested
+    class GenerateTests {
+
+        @Test
+        void generateRendersPdfAndRecordsRenderTime() throws IOException {
+            // when
+            documentGenerator.generate("filename", HTML);
+            var document = documentGenerator.generate("filename", HTML);
+            // then
+            assertThat(document.filename()).isEqualTo("filename");
+            assertThat(document.content()).isInstanceOf(ByteArrayResource.class);
+            assertThat(new String(document.content().getContentAsByteArray(), 0, 4)).isEqualTo("%PDF");
+            assertThat(document.size()).isEqualTo(document.content().contentLength());
+            assertThat(meterRegistry.get("documents.render").timer().count()).isEqualTo(2);
+            assertThat(meterRegistry.get("documents.render.queue").gauge().value()).isZero();
+        }
+
+        @Test
+        void generateRendersEachPageInSeparatePass() throws IOException {
+            // when
+            var document = documentGenerator.generate("filename", List.of(HTML, HTML, HTML));
+            // then
+            var reader = new PdfReader(document.content().getContentAsByteArray());
+            assertThat(reader.getNumberOfPages()).isEqualTo(3);
+            reader.close();
+        }
+
+        @Test
+        void generateSpillsLargeDocumentsToDisk() throws IOException {
+            // given
+            var spillingDocumentGenerator = new DocumentGenerator(new TemplateEngine(), meterRegistry, 1, 1, Duration.ofSeconds(30), DataSize.ofBytes(64), directory);
+            // when
+            var document = spillingDocumentGenerator.generate("filename", HTML);
+            // then
+            assertThat(document.content()).isInstanceOf(FileSystemResource.class);
+            assertThat(document.content().getFile().toPath().getParent()).isEqualTo(directory);
+            assertThat(document.size()).isEqualTo(document.content().contentLength()).isGreaterThan(64);
+            assertThat(new String(document.content().getContentAsByteArray(), 0, 4)).isEqualTo("%PDF");
+            spillingDocumentGenerator.shutdown();
+        }
+
+        @Test
+        void doNotGenerateDocumentAfterDeadline() {
+            // given
+            var slowDocumentGenerator = new DocumentGenerator(new TemplateEngine(), meterRegistry, 1, 1, Duration.ZERO, DataSize.ofMegabytes(1), directory);
+            // when
+            var exception = assertThatThrownBy(() -> slowDocumentGenerator.generate("filename", HTML));
+            // then
+            exception.isInstanceOf(DocumentGenerationUnavailableException.class);
+            slowDocumentGenerator.shutdown();
+        }
+
+    }
+
+}
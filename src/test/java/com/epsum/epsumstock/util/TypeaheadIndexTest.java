@@ -0,0 +1,96 @@
+package com.epsum.epsumstock.util;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeaheadIndexTest {
+
+    private record Entry(Long id, String name) {}
+
+    private TypeaheadIndex<Entry> index;
+
+    @BeforeEach
+    void setup() {
+        index = new TypeaheadIndex<>(Entry::id, Entry::name, List.of(
+                new Entry(1L, "Keyboard"),
+                new Entry(2L, "Mouse"),
+                new Entry(3L, "Mouse Pad"),
+                new Entry(4L, "Wireless Mouse"),
+                new Entry(5L, "Monitor")
+        ));
+    }
+
+    @Nested
+    class SearchTests {
+
+        @Test
+        void searchReturnsPrefixMatchesBeforeSubstringMatches() {
+            // when
+            var result = index.search("mouse", 10);
+            // then
+            assertThat(result).extracting(Entry::id).containsExactly(2L, 3L, 4L);
+        }
+
+        @Test
+        void searchIgnoresCaseAndSurroundingSpaces() {
+            // when
+            var result = index.search("  KEY ", 10);
+            // then
+            assertThat(result).extracting(Entry::id).containsExactly(1L);
+        }
+
+        @Test
+        void searchMatchesShortQueriesByPrefixOnly() {
+            // when
+            var result = index.search("us", 10);
+            // then
+            assertThat(result).isEmpty();
+        }
+
+        @Test
+        void searchReturnsAtMostLimitEntries() {
+            // when
+            var result = index.search("mo", 2);
+            // then
+            assertThat(result).extracting(Entry::id).containsExactly(5L, 2L);
+        }
+
+        @Test
+        void searchWithEmptyQueryReturnsEntriesByName() {
+            // when
+            var result = index.search("", 3);
+            // then
+            assertThat(result).extracting(Entry::id).containsExactly(1L, 5L, 2L);
+        }
+
+    }
+
+    @Nested
+    class ReplaceTests {
+
+        @Test
+        void replaceUpdatesRenamedEntries() {
+            // when
+            index.replace(List.of(2L), List.of(new Entry(2L, "Trackball")));
+            // then
+            assertThat(index.search("mouse", 10)).extracting(Entry::id).containsExactly(3L, 4L);
+            assertThat(index.search("track", 10)).extracting(Entry::id).containsExactly(2L);
+        }
+
+        @Test
+        void replaceRemovesEntriesMissingFromUpdate() {
+            // when
+            index.replace(List.of(1L), List.of());
+            // then
+            assertThat(index.search("key", 10)).isEmpty();
+            assertThat(index.findAll(List.of(1L, 2L))).extracting(Entry::id).containsExactly(2L);
+        }
+
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.epsum.epsumstock.util;
+
+import org.junit.jupiter.api.Nested;
+import org.junit.jupiter.api.Test;
+
+import com.epsum.epsumstock.user.User;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class TypeaheadTest {
+
+    private record Row(Long id, String name) {}
+
+    private final Map<Long, Row> rows = new HashMap<>();
+    private final User userA = new User(1L, "A", "a@email.com", "password");
+    private final User userB = new User(2L, "B", "b@email.com", "password");
+
+    @Nested
+    class RefreshAfterCommitTests {
+
+        @Test
+        void refreshAfterCommitReplaysWritesCommittedWhileIndexIsBuilt() {
+            // given
+            rows.put(1L, new Row(1L, "Keyboard"));
+            var typeahead = new RowTypeahead(10, Duration.ofMinutes(30));
+            typeahead.duringLoad = () -> {
+                rows.put(1L, new Row(1L, "Mouse"));
+                typeahead.refreshAfterCommit(1L, userA);
+            };
+            // when
+            var suggestions = typeahead.suggest("mouse", userA);
+            // then
+            assertThat(suggestions).containsExactly(new Row(1L, "Mouse"));
+            assertThat(typeahead.suggest("keyboard", userA)).isEmpty();
+        }
+
+    }
+
+    @Nested
+    class EvictionTests {
+
+        @Test
+        void evictIdleDropsIndexesNotUsedWithinMaxIdle() {
+            // given
+            var typeahead = new RowTypeahead(10, Duration.ZERO);
+            typeahead.suggest("mouse", userA);
+            // when
+            typeahead.evictIdle();
+            typeahead.suggest("mouse", userA);
+            // then
+            assertThat(typeahead.loads).isEqualTo(2);
+        }
+
+        @Test
+        void indexesBeyondCapacityAreEvicted() {
+            // given
+            var typeahead = new RowTypeahead(1, Duration.ofMinutes(30));
+            typeahead.suggest("mouse", userA);
+            // when
+            typeahead.suggest("mouse", userB);
+            // then
+            assertThat(typeahead.size()).isEqualTo(1);
+        }
+
+    }
+
+    private class RowTypeahead extends Typeahead<Row> {
+
+        private Runnable duringLoad = () -> {};
+        private int loads;
+
+        private RowTypeahead(int capacity, Duration maxIdle) {
+            super(Row::id, Row::name, capacity, maxIdle);
+        }
+
+        @Override
+        protected List<Row> load(User owner) {
+            loads++;
+            var loaded = List.copyOf(rows.values());
+            duringLoad.run();
+            return loaded;
+        }
+
+        @Override
+        protected List<Row> load(Collection<Long> ids, User owner) {
+            return ids.stream().map(rows::get).filter(Objects::nonNull).toList();
+        }
+
+    }
+
+}